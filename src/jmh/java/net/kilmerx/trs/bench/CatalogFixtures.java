@@ -0,0 +1,64 @@
+package net.kilmerx.trs.bench;
+
+import net.kilmerx.trs.model.Skill;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached entities shaped like one page of the public catalog, built without a database.
+ */
+class CatalogFixtures {
+
+    static final String[] SKILLS = {"Java", "Spring", "SQL", "Docker", "Kubernetes", "React", "Python", "Go"};
+
+    final List<Teacher> teachers = new ArrayList<>();
+    final List<Skill> skills = new ArrayList<>();
+    final List<Slot> slots = new ArrayList<>();
+
+    CatalogFixtures(int teacherCount, int skillsPerTeacher, int slotsPerTeacher) {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 5, 8, 0);
+        long skillId = 1;
+        long slotId = 1;
+
+        for (long t = 1; t <= teacherCount; t++) {
+            User user = User.builder()
+                    .id(t)
+                    .username("teacher" + t)
+                    .email("teacher" + t + "@example.com")
+                    .role(User.UserRole.TEACHER)
+                    .build();
+            Teacher teacher = Teacher.builder()
+                    .id(t)
+                    .user(user)
+                    .cvUrl("/api/files/download/cv-" + t + ".pdf")
+                    .build();
+            teachers.add(teacher);
+
+            for (int s = 0; s < skillsPerTeacher; s++) {
+                skills.add(Skill.builder()
+                        .id(skillId++)
+                        .skillName(SKILLS[s % SKILLS.length])
+                        .teacher(teacher)
+                        .createdAt(now)
+                        .build());
+            }
+
+            for (int h = 0; h < slotsPerTeacher; h++) {
+                LocalDateTime start = now.plusHours(h);
+                slots.add(Slot.builder()
+                        .id(slotId++)
+                        .teacher(teacher)
+                        .startDateTime(start)
+                        .endDateTime(start.plusHours(1))
+                        .available(true)
+                        .createdAt(now)
+                        .build());
+            }
+        }
+    }
+}
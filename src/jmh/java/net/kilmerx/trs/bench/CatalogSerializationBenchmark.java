@@ -0,0 +1,40 @@
+package net.kilmerx.trs.bench;
+
+import net.kilmerx.trs.dto.TeacherPageDTO;
+import net.kilmerx.trs.util.TeacherMapper;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int teachers;
+
+    @Param({"50"})
+    private int slotsPerTeacher;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private TeacherPageDTO page;
+
+    @Setup
+    public void setUp() {
+        CatalogFixtures fixtures = new CatalogFixtures(teachers, 5, slotsPerTeacher);
+        page = TeacherPageDTO.builder()
+                .teachers(TeacherMapper.toDTOs(fixtures.teachers, fixtures.skills, fixtures.slots))
+                .nextCursor("MTAw")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writeTeacherPage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+}
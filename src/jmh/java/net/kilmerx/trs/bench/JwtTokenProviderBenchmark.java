@@ -0,0 +1,56 @@
+package net.kilmerx.trs.bench;
+
+import io.jsonwebtoken.Claims;
+import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.security.CustomUserDetails;
+import net.kilmerx.trs.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private CustomUserDetails principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "benchmark-secret-benchmark-secret-benchmark-secret-0123456789");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+        User user = User.builder()
+                .id(42L)
+                .username("student42")
+                .role(User.UserRole.STUDENT)
+                .build();
+        principal = new CustomUserDetails(user, 7L);
+        token = tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return tokenProvider.parseClaims(token);
+    }
+
+    /** What the JWT filter does per request: verify once, then build the principal from claims. */
+    @Benchmark
+    public CustomUserDetails parseAndBuildPrincipal() {
+        return tokenProvider.buildPrincipal(tokenProvider.parseClaims(token), true);
+    }
+}
@@ -0,0 +1,53 @@
+package net.kilmerx.trs.bench;
+
+import net.kilmerx.trs.dto.SlotRangeRequest;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.util.SlotGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotGeneratorBenchmark {
+
+    /** Length of the single range in hours; 8760 is a full year of hourly slots. */
+    @Param({"168", "8760"})
+    private int hours;
+
+    private final Teacher teacher = Teacher.builder().id(1L).build();
+    private SlotRangeRequest range;
+    private List<SlotRangeRequest> overlappingRanges;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 5, 0, 0);
+        range = new SlotRangeRequest(start, start.plusHours(hours));
+
+        // Daily 08:00-20:00 ranges, each overlapping the previous day's by two hours
+        overlappingRanges = new ArrayList<>();
+        for (int day = 0; day < hours / 24; day++) {
+            LocalDateTime from = start.plusDays(day).withHour(8);
+            overlappingRanges.add(new SlotRangeRequest(from.minusHours(2), from.plusHours(12)));
+        }
+    }
+
+    @Benchmark
+    public List<Slot> generateSlotsFromRange() {
+        return SlotGenerator.generateSlotsFromRange(range, teacher);
+    }
+
+    @Benchmark
+    public NavigableSet<LocalDateTime> generateSlotStartsFromRanges() {
+        return SlotGenerator.generateSlotStartsFromRanges(overlappingRanges);
+    }
+}
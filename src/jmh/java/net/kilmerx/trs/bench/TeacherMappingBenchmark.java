@@ -0,0 +1,45 @@
+package net.kilmerx.trs.bench;
+
+import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.util.TeacherMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TeacherMappingBenchmark {
+
+    /** Teachers per page; 20 is the default catalog page, 100 the maximum. */
+    @Param({"20", "100"})
+    private int teachers;
+
+    @Param({"50"})
+    private int slotsPerTeacher;
+
+    private CatalogFixtures fixtures;
+    private CatalogFixtures profile;
+
+    @Setup
+    public void setUp() {
+        fixtures = new CatalogFixtures(teachers, 5, slotsPerTeacher);
+        profile = new CatalogFixtures(1, 5, slotsPerTeacher);
+    }
+
+    /** A catalog page (public teacher listing). */
+    @Benchmark
+    public List<TeacherDTO> toDTOs() {
+        return TeacherMapper.toDTOs(fixtures.teachers, fixtures.skills, fixtures.slots);
+    }
+
+    /** One teacher's own profile (GET /api/teacher/profile); independent of the page size. */
+    @Benchmark
+    public TeacherDTO toProfileDTO() {
+        return TeacherMapper.toDTO(profile.teachers.getFirst(), profile.skills, profile.slots);
+    }
+}
@@ -2,8 +2,10 @@ package net.kilmerx.trs;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TrsApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,66 @@
+package net.kilmerx.trs.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.metrics.TrsMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events: a virtual thread that blocked while pinned
+ * to its carrier for longer than the threshold, typically inside a {@code synchronized} block
+ * (drivers, pools, libraries) or a native call. Each event is counted and logged with the top of
+ * its stack, which names the monitor holder to fix or move off the virtual thread.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream stream;
+    private final TrsMetrics metrics;
+
+    public PinnedThreadMonitor(TrsMetrics metrics, Duration threshold) {
+        this.metrics = metrics;
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName())
+                .filter(type -> !type.startsWith("java.") && !type.startsWith("jdk."))
+                .findFirst()
+                .orElse("unknown");
+
+        Counter.builder("trs.vthreads.pinned")
+                .description("Virtual threads blocked while pinned to their carrier")
+                .tag("site", site)
+                .register(metrics.getRegistry())
+                .increment();
+        log.warn("Virtual thread pinned for {} ms at {}:\n    {}", event.getDuration().toMillis(), site,
+                frames.stream()
+                        .limit(LOGGED_FRAMES)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n    ")));
+    }
+}
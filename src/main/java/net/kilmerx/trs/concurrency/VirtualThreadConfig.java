@@ -0,0 +1,59 @@
+package net.kilmerx.trs.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Support for running on virtual threads (the {@code vthreads} profile): a bound on concurrent
+ * database work and JFR pinning diagnostics. Both are off unless configured.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.db.max-concurrency")
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${app.db.max-concurrency}") int maxConcurrency,
+            @Value("${app.db.acquire-timeout:PT2S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                return new ConnectionLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.db.max-concurrency")
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("trs.db.connections.waiting", limited, ConnectionLimitingDataSource::getWaiting)
+                        .register(registry);
+                Gauge.builder("trs.db.connections.permits.available", limited,
+                                ConnectionLimitingDataSource::getAvailable)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.vthreads.pinning-monitor.enabled", havingValue = "true")
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            TrsMetrics metrics,
+            @Value("${app.vthreads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        return new PinnedThreadMonitor(metrics, threshold);
+    }
+}
@@ -6,6 +6,7 @@ import net.kilmerx.trs.dto.AdminTeacherCreateRequest;
 import net.kilmerx.trs.dto.AdminTeacherCreateResponse;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestStatus;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestSummary;
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
 import net.kilmerx.trs.service.TeacherRegistrationRequestService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,9 @@ public class AdminController {
         try {
             AdminTeacherCreateResponse response = registrationRequestService.createTeacherByAdmin(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Teacher creation rejected: {}", e.getMessage());
+            return PasswordHashingRejectedException.tooManyRequests().build();
         } catch (Exception e) {
             log.error("Error creating teacher by admin: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
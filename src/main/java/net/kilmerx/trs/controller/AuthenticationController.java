@@ -1,12 +1,17 @@
 package net.kilmerx.trs.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import net.kilmerx.trs.dto.AuthRequest;
 import net.kilmerx.trs.dto.AuthResponse;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestCreate;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestStatus;
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
+import net.kilmerx.trs.ratelimit.RateLimitProperties;
+import net.kilmerx.trs.ratelimit.RateLimitService;
 import net.kilmerx.trs.service.AuthenticationService;
 import net.kilmerx.trs.service.TeacherRegistrationRequestService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,12 +23,37 @@ public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
     private final TeacherRegistrationRequestService registrationRequestService;
+    private final RateLimitService rateLimitService;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        RateLimitService.Decision decision = rateLimitService.acquire(httpRequest,
+                RateLimitProperties.Key.USERNAME_IP, request.getUsername());
+        if (!decision.allowed()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()))
+                    .build();
+        }
         try {
             AuthResponse response = authenticationService.authenticate(request);
             return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            if (PasswordHashingRejectedException.isCauseOf(e)) {
+                return PasswordHashingRejectedException.tooManyRequests().build();
+            }
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .build();
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization) {
+        try {
+            if (!authorization.startsWith("Bearer ")) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+            authenticationService.logout(authorization.substring(7));
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .build();
@@ -36,6 +66,8 @@ public class AuthenticationController {
         try {
             TeacherRegistrationRequestStatus response = registrationRequestService.createRequest(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingRejectedException e) {
+            return PasswordHashingRejectedException.tooManyRequests().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .build();
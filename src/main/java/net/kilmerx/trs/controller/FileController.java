@@ -1,13 +1,21 @@
 package net.kilmerx.trs.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.metrics.TrsMetrics;
 import net.kilmerx.trs.service.FileStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -18,12 +26,22 @@ import java.io.IOException;
 @Slf4j
 public class FileController {
 
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private final FileStorageService fileStorageService;
+    private final TrsMetrics metrics;
+
+    @Value("${file.download.sendfile-min-size:49152}")
+    private long sendfileMinSize;
 
     @PostMapping("/public/files/upload")
     public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
         try {
             String fileName = fileStorageService.storeFile(file);
+            metrics.recordBytes("trs.files.upload.bytes", file.getSize());
             String fileUrl = fileStorageService.getFileUrl(fileName);
             return ResponseEntity.ok(fileUrl);
         } catch (IOException e) {
@@ -33,17 +51,36 @@ public class FileController {
     }
 
     @GetMapping("/public/files/download/{fileName}")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable String fileName) {
+    public ResponseEntity<Resource> downloadFile(
+            @PathVariable String fileName,
+            HttpServletRequest request,
+            ServletWebRequest webRequest) {
         try {
-            byte[] fileContent = fileStorageService.retrieveFile(fileName);
+            FileStorageService.StoredFile file = fileStorageService.loadFile(fileName);
+
+            if (webRequest.checkNotModified(file.getETag(), file.getLastModified())) {
+                return null;
+            }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", fileName);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(fileName).build().toString())
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .eTag(file.getETag())
+                    .lastModified(file.getLastModified());
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(fileContent);
+            // Full downloads are handed to the connector's sendfile path when available;
+            // range requests fall through to Spring's ResourceRegion support
+            metrics.recordBytes("trs.files.download.bytes", servedBytes(request, file));
+            if (canSendFile(request, file)) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, file.getPath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, file.getSize());
+                return response.contentLength(file.getSize()).build();
+            }
+
+            return response.body(file.getResource());
         } catch (IOException e) {
             log.error("File download error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -60,4 +97,29 @@ public class FileController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    /**
+     * The bytes the response will carry: the whole file, or only the requested ranges. A range
+     * that cannot be served is answered with 416 and carries nothing.
+     */
+    private static long servedBytes(HttpServletRequest request, FileStorageService.StoredFile file) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return file.getSize();
+        }
+        try {
+            return HttpRange.toResourceRegions(HttpRange.parseRanges(range), file.getResource()).stream()
+                    .mapToLong(ResourceRegion::getCount)
+                    .sum();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private boolean canSendFile(HttpServletRequest request, FileStorageService.StoredFile file) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && "GET".equals(request.getMethod())
+                && file.getSize() >= sendfileMinSize;
+    }
 }
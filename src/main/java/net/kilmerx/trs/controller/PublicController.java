@@ -3,23 +3,39 @@ package net.kilmerx.trs.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.kilmerx.trs.dto.AuthRequest;
+import net.kilmerx.trs.dto.AvailabilityRuleDTO;
+import net.kilmerx.trs.dto.SlotChangesDTO;
+import net.kilmerx.trs.dto.TeacherAvailabilityDTO;
 import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.dto.TeacherPageDTO;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestCreate;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestStatus;
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
+import net.kilmerx.trs.exception.SyncTokenExpiredException;
 import net.kilmerx.trs.model.Student;
-import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.model.User;
 import net.kilmerx.trs.repository.StudentRepository;
-import net.kilmerx.trs.repository.TeacherRepository;
 import net.kilmerx.trs.repository.UserRepository;
+import net.kilmerx.trs.service.AvailabilityRuleService;
+import net.kilmerx.trs.service.AvailabilityService;
+import net.kilmerx.trs.service.AvailabilityStreamService;
+import net.kilmerx.trs.service.CatalogResponseCache;
+import net.kilmerx.trs.service.IdempotencyService;
+import net.kilmerx.trs.service.SlotChangesService;
+import net.kilmerx.trs.service.TeacherCatalogService;
 import net.kilmerx.trs.service.TeacherRegistrationRequestService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/public")
@@ -29,12 +45,30 @@ public class PublicController {
 
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
-    private final TeacherRepository teacherRepository;
+    private final CatalogResponseCache catalogResponseCache;
+    private final AvailabilityService availabilityService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final SlotChangesService slotChangesService;
+    private final AvailabilityRuleService availabilityRuleService;
     private final PasswordEncoder passwordEncoder;
     private final TeacherRegistrationRequestService registrationRequestService;
+    private final IdempotencyService idempotencyService;
 
+    /**
+     * Registers a student. Retries sent with the same Idempotency-Key get the original response
+     * instead of hashing the password and registering again. Only the username goes into the
+     * request fingerprint, so that no password-derived value is persisted.
+     */
     @PostMapping("/register/student")
-    public ResponseEntity<String> registerStudent(@RequestBody AuthRequest request) {
+    public ResponseEntity<String> registerStudent(
+            @RequestBody AuthRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("register-student", idempotencyKey,
+                IdempotencyService.fingerprint(request.getUsername()), String.class,
+                () -> createStudent(request));
+    }
+
+    private ResponseEntity<String> createStudent(AuthRequest request) {
         try {
             if (userRepository.existsByUsername(request.getUsername())) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -63,6 +97,10 @@ public class PublicController {
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body("Student registered successfully");
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Student registration rejected: {}", e.getMessage());
+            return PasswordHashingRejectedException.tooManyRequests()
+                    .body("Too many registrations in progress, retry shortly");
         } catch (Exception e) {
             log.error("Error registering student: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -76,72 +114,127 @@ public class PublicController {
         try {
             TeacherRegistrationRequestStatus response = registrationRequestService.createRequest(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Teacher registration request rejected: {}", e.getMessage());
+            return PasswordHashingRejectedException.tooManyRequests().build();
         } catch (Exception e) {
             log.error("Error creating teacher registration request: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    /**
+     * Returns a page of {@link TeacherPageDTO}, pre-rendered. A matching If-None-Match is
+     * answered with 304 without sending the body.
+     */
     @GetMapping("/teachers")
-    public ResponseEntity<List<TeacherDTO>> getAllTeachers() {
+    public ResponseEntity<byte[]> getAllTeachers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TeacherCatalogService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest webRequest) {
         try {
-            List<TeacherDTO> teachers = teacherRepository.findAll().stream()
-                    .map(teacher -> TeacherDTO.builder()
-                            .id(teacher.getId())
-                            .userId(teacher.getUser().getId())
-                            .username(teacher.getUser().getUsername())
-                            .cvUrl(teacher.getCvUrl())
-                            .skills(teacher.getSkills().stream()
-                                    .map(s -> new net.kilmerx.trs.dto.SkillDTO(s.getId(), s.getSkillName()))
-                                    .collect(Collectors.toList()))
-                            .availableSlots(teacher.getAvailableSlots().stream()
-                                    .filter(slot -> slot.getAvailable())
-                                    .map(slot -> new net.kilmerx.trs.dto.SlotDTO(
-                                            slot.getId(),
-                                            slot.getStartDateTime(),
-                                            slot.getEndDateTime(),
-                                            slot.getAvailable(),
-                                            slot.getCreatedAt()))
-                                    .collect(Collectors.toList()))
-                            .build())
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(teachers);
+            CatalogResponseCache.CachedJson json = catalogResponseCache.getTeachers(cursor, size);
+            if (webRequest.checkNotModified(json.etag())) {
+                return null;
+            }
+            return toJsonResponse(json);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid teacher page request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             log.error("Error fetching teachers: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Returns a {@link TeacherDTO}, pre-rendered. A matching If-None-Match is answered with 304
+     * without sending the body.
+     */
     @GetMapping("/teachers/{teacherId}")
-    public ResponseEntity<TeacherDTO> getTeacher(@PathVariable Long teacherId) {
+    public ResponseEntity<byte[]> getTeacher(@PathVariable Long teacherId, WebRequest webRequest) {
         try {
-            Teacher teacher = teacherRepository.findById(teacherId)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
-            TeacherDTO dto = TeacherDTO.builder()
-                    .id(teacher.getId())
-                    .userId(teacher.getUser().getId())
-                    .username(teacher.getUser().getUsername())
-                    .cvUrl(teacher.getCvUrl())
-                    .skills(teacher.getSkills().stream()
-                            .map(s -> new net.kilmerx.trs.dto.SkillDTO(s.getId(), s.getSkillName()))
-                            .collect(Collectors.toList()))
-                    .availableSlots(teacher.getAvailableSlots().stream()
-                            .filter(slot -> slot.getAvailable())
-                            .map(slot -> new net.kilmerx.trs.dto.SlotDTO(
-                                    slot.getId(),
-                                    slot.getStartDateTime(),
-                                    slot.getEndDateTime(),
-                                    slot.getAvailable(),
-                                    slot.getCreatedAt()))
-                            .collect(Collectors.toList()))
-                    .build();
-
-            return ResponseEntity.ok(dto);
+            CatalogResponseCache.CachedJson json = catalogResponseCache.getTeacher(teacherId);
+            if (webRequest.checkNotModified(json.etag())) {
+                return null;
+            }
+            return toJsonResponse(json);
         } catch (Exception e) {
             log.error("Error fetching teacher: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    /**
+     * Server-Sent Events stream of the teacher's slot changes: {@code slots} events carry a JSON
+     * array of {@link net.kilmerx.trs.dto.SlotAvailabilityDelta}, {@code resync} asks the client
+     * to refetch the teacher because it reconnected after missing changes.
+     */
+    @GetMapping(path = "/teachers/{teacherId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTeacherAvailability(
+            @PathVariable Long teacherId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok(availabilityStreamService.subscribe(teacherId, lastEventId));
+        } catch (Exception e) {
+            log.error("Error opening availability stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @GetMapping("/teachers/{teacherId}/availability-rules")
+    public ResponseEntity<List<AvailabilityRuleDTO>> getTeacherAvailabilityRules(@PathVariable Long teacherId) {
+        try {
+            return ResponseEntity.ok(availabilityRuleService.getTeacherRules(teacherId));
+        } catch (Exception e) {
+            log.error("Error fetching availability rules: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    /**
+     * Slots created, changed or deleted since the given sync token, oldest first.
+     * Answers 410 when the token is too old for deletions to be complete.
+     */
+    @GetMapping("/slots/changes")
+    public ResponseEntity<SlotChangesDTO> getSlotChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + SlotChangesService.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(slotChangesService.getChanges(since, limit));
+        } catch (SyncTokenExpiredException e) {
+            log.error("Expired slot sync token: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid slot changes request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Error fetching slot changes: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<TeacherAvailabilityDTO>> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String skill) {
+        try {
+            return ResponseEntity.ok(availabilityService.findAvailableTeachers(from, to, skill));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid availability search: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Error searching availability: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private ResponseEntity<byte[]> toJsonResponse(CatalogResponseCache.CachedJson json) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(json.etag())
+                .body(json.body());
+    }
 }
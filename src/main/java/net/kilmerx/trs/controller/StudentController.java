@@ -2,18 +2,24 @@ package net.kilmerx.trs.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.BatchReservationRequest;
+import net.kilmerx.trs.dto.BatchReservationResponse;
+import net.kilmerx.trs.dto.ReservationDTO;
+import net.kilmerx.trs.dto.ReservationPageDTO;
 import net.kilmerx.trs.dto.ReservationRequest;
-import net.kilmerx.trs.model.Reservation;
-import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.exception.SlotConflictException;
 import net.kilmerx.trs.repository.StudentRepository;
 import net.kilmerx.trs.security.CustomUserDetails;
+import net.kilmerx.trs.service.AvailabilityRuleService;
+import net.kilmerx.trs.service.IdempotencyService;
 import net.kilmerx.trs.service.ReservationService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/student")
@@ -23,34 +29,136 @@ public class StudentController {
 
     private final StudentRepository studentRepository;
     private final ReservationService reservationService;
+    private final AvailabilityRuleService availabilityRuleService;
+    private final IdempotencyService idempotencyService;
 
+    /**
+     * Reserves a slot. Retries sent with the same Idempotency-Key get the original response
+     * instead of booking again.
+     */
     @PostMapping("/reservations")
-    public ResponseEntity<Reservation> reserveSlot(
+    public ResponseEntity<ReservationDTO> reserveSlot(
             @RequestBody ReservationRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        Long studentId;
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Student student = studentRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Student profile not found"));
+            studentId = resolveStudentId(authentication);
+        } catch (Exception e) {
+            log.error("Error reserving slot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        String fingerprint = IdempotencyService.fingerprint(
+                request.getSlotId(), request.getRuleId(), request.getStartDateTime());
+        return idempotencyService.execute("reservations:student:" + studentId, idempotencyKey, fingerprint,
+                ReservationDTO.class, () -> reserve(studentId, request));
+    }
 
-            Reservation reservation = reservationService.reserveSlot(student.getId(), request.getSlotId());
+    private ResponseEntity<ReservationDTO> reserve(Long studentId, ReservationRequest request) {
+        try {
+            Long slotId = request.getSlotId() != null || request.getRuleId() == null
+                    ? request.getSlotId()
+                    : availabilityRuleService.materializeOccurrence(request.getRuleId(), request.getStartDateTime());
+
+            ReservationDTO reservation = reservationService.reserveSlot(studentId, slotId);
             return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+        } catch (SlotConflictException e) {
+            log.info("Slot {} conflict: {}", request.getSlotId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Error reserving slot: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    /**
+     * Reserves several slots at once and reports the outcome per slot. Answers 201 when at least
+     * one slot was reserved and 409 (with the outcomes) when none was.
+     */
+    @PostMapping("/reservations/batch")
+    public ResponseEntity<BatchReservationResponse> reserveSlots(
+            @RequestBody BatchReservationRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        Long studentId;
+        try {
+            studentId = resolveStudentId(authentication);
+        } catch (Exception e) {
+            log.error("Error reserving slots: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        String fingerprint = IdempotencyService.fingerprint(request.getSlotIds(), request.getMode());
+        return idempotencyService.execute("reservations-batch:student:" + studentId, idempotencyKey, fingerprint,
+                BatchReservationResponse.class, () -> reserveAll(studentId, request));
+    }
+
+    private ResponseEntity<BatchReservationResponse> reserveAll(Long studentId, BatchReservationRequest request) {
+        try {
+            BatchReservationResponse response = reservationService.reserveSlots(
+                    studentId, request.getSlotIds(), request.getMode());
+            HttpStatus status = response.getReserved() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status).body(response);
+        } catch (SlotConflictException e) {
+            log.info("Batch reservation conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error reserving slots: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Holds the slot for the hold TTL; the reservation only becomes ACTIVE once confirmed.
+     */
+    @PostMapping("/reservations/hold")
+    public ResponseEntity<ReservationDTO> holdSlot(
+            @RequestBody ReservationRequest request,
+            Authentication authentication) {
+        try {
+            Long studentId = resolveStudentId(authentication);
+
+            Long slotId = request.getSlotId() != null || request.getRuleId() == null
+                    ? request.getSlotId()
+                    : availabilityRuleService.materializeOccurrence(request.getRuleId(), request.getStartDateTime());
+
+            ReservationDTO reservation = reservationService.holdSlot(studentId, slotId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+        } catch (SlotConflictException e) {
+            log.info("Slot {} conflict: {}", request.getSlotId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error holding slot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ReservationDTO> confirmHold(
+            @PathVariable Long reservationId,
+            Authentication authentication) {
+        try {
+            Long studentId = resolveStudentId(authentication);
+
+            return ResponseEntity.ok(reservationService.confirmHold(reservationId, studentId));
+        } catch (SlotConflictException e) {
+            log.info("Hold {} conflict: {}", reservationId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error confirming hold: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @PostMapping("/reservations/{reservationId}/cancel")
     public ResponseEntity<Void> cancelReservation(
             @PathVariable Long reservationId,
             Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Student student = studentRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Student not found"));
+            Long studentId = resolveStudentId(authentication);
 
-            reservationService.cancelReservation(reservationId, student.getId());
+            reservationService.cancelReservation(reservationId, studentId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             log.error("Error cancelling reservation: {}", e.getMessage());
@@ -58,18 +166,37 @@ public class StudentController {
         }
     }
 
+    /**
+     * Pages through the student's reservations, latest slot first. Optional filters: status
+     * (HELD, ACTIVE, COMPLETED, CANCELLED) and a [from, to) window on the slot start.
+     */
     @GetMapping("/reservations")
-    public ResponseEntity<List<Reservation>> getReservations(Authentication authentication) {
+    public ResponseEntity<ReservationPageDTO> getReservations(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ReservationService.DEFAULT_PAGE_SIZE) int size,
+            Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Student student = studentRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Student not found"));
+            Long studentId = resolveStudentId(authentication);
 
-            List<Reservation> reservations = reservationService.getStudentReservations(student.getId());
-            return ResponseEntity.ok(reservations);
+            return ResponseEntity.ok(reservationService.getStudentReservations(studentId, status, from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid reservation listing request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             log.error("Error fetching reservations: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    private Long resolveStudentId(Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        if (userDetails.getProfileId() != null) {
+            return userDetails.getProfileId();
+        }
+        return studentRepository.findIdByUserId(userDetails.getUser().getId())
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+    }
 }
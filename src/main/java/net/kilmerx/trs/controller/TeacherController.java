@@ -2,22 +2,29 @@ package net.kilmerx.trs.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.AvailabilityRuleDTO;
+import net.kilmerx.trs.dto.AvailabilityRuleRequest;
 import net.kilmerx.trs.dto.SkillDTO;
+import net.kilmerx.trs.dto.SlotBatchResponse;
 import net.kilmerx.trs.dto.SlotDTO;
 import net.kilmerx.trs.dto.SlotRangeRequest;
 import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.exception.SlotConflictException;
 import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
 import net.kilmerx.trs.repository.TeacherRepository;
 import net.kilmerx.trs.security.CustomUserDetails;
+import net.kilmerx.trs.service.AvailabilityRuleService;
 import net.kilmerx.trs.service.SkillService;
 import net.kilmerx.trs.service.SlotService;
+import net.kilmerx.trs.util.TeacherMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/teacher")
@@ -26,39 +33,22 @@ import java.util.stream.Collectors;
 public class TeacherController {
 
     private final TeacherRepository teacherRepository;
+    private final SkillRepository skillRepository;
+    private final SlotRepository slotRepository;
     private final SkillService skillService;
     private final SlotService slotService;
+    private final AvailabilityRuleService availabilityRuleService;
 
     @GetMapping("/profile")
     public ResponseEntity<TeacherDTO> getProfile(Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
+            Long teacherId = resolveTeacherId(authentication);
+            Teacher teacher = teacherRepository.findWithUserById(teacherId)
                     .orElseThrow(() -> new RuntimeException("Teacher profile not found"));
 
-            TeacherDTO dto = TeacherDTO.builder()
-                    .id(teacher.getId())
-                    .userId(teacher.getUser().getId())
-                    .username(teacher.getUser().getUsername())
-                    .cvUrl(teacher.getCvUrl())
-                    .skills(teacher.getSkills().stream()
-                            .map(s -> SkillDTO.builder()
-                                    .id(s.getId())
-                                    .skillName(s.getSkillName())
-                                    .build())
-                            .collect(Collectors.toList()))
-                    .availableSlots(teacher.getAvailableSlots().stream()
-                            .map(slot -> SlotDTO.builder()
-                                    .id(slot.getId())
-                                    .startDateTime(slot.getStartDateTime())
-                                    .endDateTime(slot.getEndDateTime())
-                                    .available(slot.getAvailable())
-                                    .createdAt(slot.getCreatedAt())
-                                    .build())
-                            .collect(Collectors.toList()))
-                    .build();
-
-            return ResponseEntity.ok(dto);
+            return ResponseEntity.ok(TeacherMapper.toDTO(teacher,
+                    skillRepository.findByTeacherId(teacherId),
+                    slotRepository.findByTeacherId(teacherId)));
         } catch (Exception e) {
             log.error("Error fetching teacher profile: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -70,11 +60,9 @@ public class TeacherController {
             @RequestParam String skillName,
             Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            SkillDTO skill = skillService.addSkill(teacher.getId(), skillName);
+            SkillDTO skill = skillService.addSkill(teacherId, skillName);
             return ResponseEntity.status(HttpStatus.CREATED).body(skill);
         } catch (Exception e) {
             log.error("Error adding skill: {}", e.getMessage());
@@ -85,11 +73,9 @@ public class TeacherController {
     @GetMapping("/skills")
     public ResponseEntity<List<SkillDTO>> getSkills(Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            List<SkillDTO> skills = skillService.getTeacherSkills(teacher.getId());
+            List<SkillDTO> skills = skillService.getTeacherSkills(teacherId);
             return ResponseEntity.ok(skills);
         } catch (Exception e) {
             log.error("Error fetching skills: {}", e.getMessage());
@@ -102,11 +88,9 @@ public class TeacherController {
             @PathVariable Long skillId,
             Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            skillService.deleteSkill(skillId, teacher.getId());
+            skillService.deleteSkill(skillId, teacherId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             log.error("Error deleting skill: {}", e.getMessage());
@@ -119,12 +103,13 @@ public class TeacherController {
             @RequestBody SlotRangeRequest rangeRequest,
             Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            List<SlotDTO> slots = slotService.addSlotsFromRange(teacher.getId(), rangeRequest);
+            List<SlotDTO> slots = slotService.addSlotsFromRange(teacherId, rangeRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(slots);
+        } catch (SlotConflictException e) {
+            log.info("Conflict adding slot range: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Error adding slot range: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -132,16 +117,17 @@ public class TeacherController {
     }
 
     @PostMapping("/slots/ranges")
-    public ResponseEntity<List<SlotDTO>> addSlotRanges(
+    public ResponseEntity<SlotBatchResponse> addSlotRanges(
             @RequestBody List<SlotRangeRequest> rangeRequests,
             Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            List<SlotDTO> slots = slotService.addSlotsFromRanges(teacher.getId(), rangeRequests);
-            return ResponseEntity.status(HttpStatus.CREATED).body(slots);
+            SlotBatchResponse result = slotService.addSlotsFromRanges(teacherId, rangeRequests);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (SlotConflictException e) {
+            log.info("Conflict adding slot ranges: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Error adding slot ranges: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -151,11 +137,9 @@ public class TeacherController {
     @GetMapping("/slots")
     public ResponseEntity<List<SlotDTO>> getSlots(Authentication authentication) {
         try {
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            Teacher teacher = teacherRepository.findByUserId(userDetails.getUser().getId())
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
+            Long teacherId = resolveTeacherId(authentication);
 
-            List<SlotDTO> slots = slotService.getTeacherSlots(teacher.getId());
+            List<SlotDTO> slots = slotService.getTeacherSlots(teacherId);
             return ResponseEntity.ok(slots);
         } catch (Exception e) {
             log.error("Error fetching slots: {}", e.getMessage());
@@ -175,4 +159,58 @@ public class TeacherController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    @PostMapping("/availability-rules")
+    public ResponseEntity<AvailabilityRuleDTO> addAvailabilityRule(
+            @RequestBody AvailabilityRuleRequest ruleRequest,
+            Authentication authentication) {
+        try {
+            Long teacherId = resolveTeacherId(authentication);
+
+            AvailabilityRuleDTO rule = availabilityRuleService.createRule(teacherId, ruleRequest);
+            return ResponseEntity.status(HttpStatus.CREATED).body(rule);
+        } catch (SlotConflictException e) {
+            log.info("Conflict adding availability rule: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error adding availability rule: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/availability-rules")
+    public ResponseEntity<List<AvailabilityRuleDTO>> getAvailabilityRules(Authentication authentication) {
+        try {
+            Long teacherId = resolveTeacherId(authentication);
+
+            return ResponseEntity.ok(availabilityRuleService.getTeacherRules(teacherId));
+        } catch (Exception e) {
+            log.error("Error fetching availability rules: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @DeleteMapping("/availability-rules/{ruleId}")
+    public ResponseEntity<Void> deleteAvailabilityRule(
+            @PathVariable Long ruleId,
+            Authentication authentication) {
+        try {
+            Long teacherId = resolveTeacherId(authentication);
+
+            availabilityRuleService.deleteRule(ruleId, teacherId);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.error("Error deleting availability rule: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    private Long resolveTeacherId(Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        if (userDetails.getProfileId() != null) {
+            return userDetails.getProfileId();
+        }
+        return teacherRepository.findIdByUserId(userDetails.getUser().getId())
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+    }
 }
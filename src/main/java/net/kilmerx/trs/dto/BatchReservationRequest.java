@@ -0,0 +1,26 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchReservationRequest {
+    private List<Long> slotIds;
+
+    /**
+     * ALL_OR_NOTHING (default) books nothing unless every slot is free;
+     * BEST_EFFORT books whichever slots are free.
+     */
+    private Mode mode;
+
+    public enum Mode {
+        ALL_OR_NOTHING, BEST_EFFORT
+    }
+}
@@ -0,0 +1,39 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchReservationResponse {
+    private BatchReservationRequest.Mode mode;
+    private int reserved;
+    private List<SlotOutcome> outcomes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SlotOutcome {
+        private Long slotId;
+        private Outcome outcome;
+        /**
+         * Set when the slot was reserved.
+         */
+        private Long reservationId;
+    }
+
+    /**
+     * SKIPPED: the slot was free, but nothing was booked because another slot of an
+     * ALL_OR_NOTHING batch was not.
+     */
+    public enum Outcome {
+        RESERVED, UNAVAILABLE, NOT_FOUND, SKIPPED
+    }
+}
@@ -0,0 +1,26 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.kilmerx.trs.model.Reservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a reservation archive file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationArchiveRow {
+    private Long id;
+    private Long studentId;
+    private Long slotId;
+    private Reservation.ReservationStatus status;
+    private LocalDateTime holdExpiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationDTO {
+    private Long id;
+    private Long slotId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime holdExpiresAt;
+}
@@ -0,0 +1,19 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationPageDTO {
+    private List<ReservationSummaryDTO> reservations;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -5,10 +5,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ReservationRequest {
     private Long slotId;
+
+    /**
+     * Alternative to slotId: reserve the occurrence of a recurring availability rule
+     * starting at startDateTime, materializing its slot if needed.
+     */
+    private Long ruleId;
+    private LocalDateTime startDateTime;
 }
@@ -0,0 +1,27 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of a student's reservation listing, read in one projection query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationSummaryDTO {
+    private Long id;
+    private String status;
+    private Long slotId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Long teacherId;
+    private String teacherName;
+    private LocalDateTime holdExpiresAt;
+    private LocalDateTime createdAt;
+}
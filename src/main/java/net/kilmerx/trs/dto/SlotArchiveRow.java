@@ -0,0 +1,26 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a slot archive file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotArchiveRow {
+    private Long id;
+    private Long teacherId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Boolean available;
+    private Long ruleId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
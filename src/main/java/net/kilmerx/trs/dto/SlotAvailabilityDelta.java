@@ -0,0 +1,20 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slot change pushed on the availability stream. A deleted slot is sent as unavailable.
+ * The version is the teacher's catalog version after the change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotAvailabilityDelta {
+    private Long slotId;
+    private Boolean available;
+    private Long version;
+}
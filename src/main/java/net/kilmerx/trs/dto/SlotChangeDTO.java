@@ -0,0 +1,25 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A slot as of its last write. Deleted slots only carry their id, teacher and deletion time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotChangeDTO {
+    private Long slotId;
+    private Long teacherId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Boolean available;
+    private boolean deleted;
+    private LocalDateTime updatedAt;
+}
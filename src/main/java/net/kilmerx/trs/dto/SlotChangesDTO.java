@@ -0,0 +1,24 @@
+package net.kilmerx.trs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotChangesDTO {
+    private List<SlotChangeDTO> changes;
+    /**
+     * Token to pass as {@code since} on the next call.
+     */
+    private String nextToken;
+    /**
+     * True when more changes are ready and the client should call again right away.
+     */
+    private boolean hasMore;
+}
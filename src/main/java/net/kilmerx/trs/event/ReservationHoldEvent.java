@@ -0,0 +1,26 @@
+package net.kilmerx.trs.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a reservation hold is placed, or resolved by confirmation or cancellation
+ * before it expired. Listeners receive it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class ReservationHoldEvent {
+
+    public enum Type {
+        PLACED, RESOLVED
+    }
+
+    private final Long reservationId;
+    private final Type type;
+    /**
+     * Expiry of a placed hold; null when resolved.
+     */
+    private final LocalDateTime expiresAt;
+}
@@ -0,0 +1,21 @@
+package net.kilmerx.trs.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by SkillService whenever a skill is added to or removed from a teacher.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class SkillChangedEvent {
+
+    public enum ChangeType {
+        ADDED, DELETED
+    }
+
+    private final Long teacherId;
+    private final ChangeType type;
+    private final String skillName;
+}
@@ -0,0 +1,24 @@
+package net.kilmerx.trs.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.kilmerx.trs.dto.SlotDTO;
+
+import java.util.List;
+
+/**
+ * Published by the services whenever slots of a teacher are created, deleted,
+ * reserved or released. Listeners receive it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class SlotChangedEvent {
+
+    public enum ChangeType {
+        CREATED, DELETED, RESERVED, RELEASED
+    }
+
+    private final Long teacherId;
+    private final ChangeType type;
+    private final List<SlotDTO> slots;
+}
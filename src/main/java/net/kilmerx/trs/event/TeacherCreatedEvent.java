@@ -0,0 +1,15 @@
+package net.kilmerx.trs.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a teacher profile is created, by self-registration, by an approved
+ * registration request or by an admin. Listeners receive it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class TeacherCreatedEvent {
+
+    private final Long teacherId;
+}
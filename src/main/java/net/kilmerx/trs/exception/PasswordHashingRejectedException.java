@@ -0,0 +1,37 @@
+package net.kilmerx.trs.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Thrown when the password hashing executor is saturated and a hash or check was turned away.
+ * Answered with 429 so that clients back off instead of piling up on the request threads.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * The answer to a rejected request: 429 with a short Retry-After, since a slot on the hashing
+     * pool frees up within a few hash times.
+     */
+    public static ResponseEntity.BodyBuilder tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    /**
+     * Whether the exception or one of its causes is a rejection. Spring Security wraps exceptions
+     * thrown while checking an unknown user's password in an InternalAuthenticationServiceException.
+     */
+    public static boolean isCauseOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package net.kilmerx.trs.exception;
+
+/**
+ * Thrown when a slot can no longer be claimed because another reservation got it first.
+ */
+public class SlotConflictException extends RuntimeException {
+
+    public SlotConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package net.kilmerx.trs.exception;
+
+/**
+ * Thrown when a delta sync token predates the tombstone retention, so deletions since then
+ * may have been purged and the client has to resync from scratch.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,98 @@
+package net.kilmerx.trs.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
+import net.kilmerx.trs.exception.SlotConflictException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Timers and distributions for the application's hot paths, all tagged by outcome so that
+ * conflicts, missing entities and bad input can be told apart from real errors.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrsMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CONFLICT = "conflict";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_VALIDATION = "validation";
+    public static final String OUTCOME_UNAUTHORIZED = "unauthorized";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    public <T> T record(String name, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(timer(name, outcome));
+        }
+    }
+
+    public void record(String name, Runnable action) {
+        record(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public Timer timer(String name, String outcome) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordBytes(String name, long bytes) {
+        DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(bytes);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Maps an exception to an outcome tag. Services signal missing entities with
+     * "... not found" messages, so those are recognized by message.
+     */
+    public static String outcomeOf(Throwable e) {
+        if (PasswordHashingRejectedException.isCauseOf(e)) {
+            return OUTCOME_REJECTED;
+        }
+        if (e instanceof SlotConflictException || e instanceof DataIntegrityViolationException) {
+            return OUTCOME_CONFLICT;
+        }
+        if (e instanceof AuthenticationException) {
+            return OUTCOME_UNAUTHORIZED;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return OUTCOME_VALIDATION;
+        }
+        String message = e.getMessage();
+        if (message != null && message.endsWith("not found")) {
+            return OUTCOME_NOT_FOUND;
+        }
+        if (message != null && message.startsWith("Invalid")) {
+            return OUTCOME_VALIDATION;
+        }
+        return OUTCOME_ERROR;
+    }
+}
@@ -0,0 +1,80 @@
+package net.kilmerx.trs.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compact description of a teacher's recurring availability, e.g. every Tuesday 09:00-12:00
+ * for the school year. Concrete slots are only materialized up to {@link #materializedUntil}.
+ */
+@Entity
+@Table(name = "availability_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teacher_id", nullable = false)
+    private Teacher teacher;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private LocalDate validFrom;
+
+    @Column(nullable = false)
+    private LocalDate validUntil;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "availability_rule_exceptions",
+            joinColumns = @JoinColumn(name = "rule_id"))
+    @Column(name = "exception_date", nullable = false)
+    @Builder.Default
+    private Set<LocalDate> exceptions = new HashSet<>();
+
+    /**
+     * Exclusive upper bound of the dates whose slots have already been materialized.
+     */
+    @Column(nullable = false)
+    private LocalDate materializedUntil;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,69 @@
+package net.kilmerx.trs.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a POST sent with an Idempotency-Key, kept so that retries get the original
+ * response instead of running the request again.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = @UniqueConstraint(
+        name = "ux_idempotency_keys_scope_key", columnNames = {"scope", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Endpoint and caller the key belongs to, e.g. {@code reservations:student:42}.
+     */
+    @Column(nullable = false, length = 100)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request, to reject a key reused for a different request.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    /**
+     * When the request currently executing under this key started; used to take over keys
+     * left IN_PROGRESS by a crashed node.
+     */
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
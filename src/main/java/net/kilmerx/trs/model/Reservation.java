@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +32,12 @@ public class Reservation {
     @Column(nullable = false)
     private ReservationStatus status;
 
+    /**
+     * When a HELD reservation lapses and its slot is released; null for reservations made directly.
+     */
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -48,7 +55,11 @@ public class Reservation {
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * HELD claims the slot for a short time until the student confirms (ACTIVE) or the hold
+     * expires (CANCELLED).
+     */
     public enum ReservationStatus {
-        ACTIVE, COMPLETED, CANCELLED
+        HELD, ACTIVE, COMPLETED, CANCELLED
     }
 }
@@ -9,14 +9,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "slots")
+// One slot per teacher and hour; see SlotService.createSlots
+@Table(name = "slots", uniqueConstraints = @UniqueConstraint(name = "ux_slots_teacher_start",
+        columnNames = {"teacher_id", "start_date_time"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Slot {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slots_seq")
+    @SequenceGenerator(name = "slots_seq", sequenceName = "slots_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,6 +36,12 @@ public class Slot {
     @Builder.Default
     private Boolean available = true;
 
+    /**
+     * Availability rule this slot was materialized from; null for slots added directly.
+     */
+    @Column(name = "rule_id")
+    private Long ruleId;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
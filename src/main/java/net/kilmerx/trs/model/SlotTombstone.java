@@ -0,0 +1,61 @@
+package net.kilmerx.trs.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records a deleted slot so that delta sync clients learn about the deletion.
+ * Purged after the tombstone retention; older sync tokens must resync from scratch.
+ */
+@Entity
+@Table(name = "slot_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotTombstone implements Persistable<Long> {
+    @Id
+    @Column(name = "slot_id")
+    private Long slotId;
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    // Ids are assigned (the deleted slot's id); saves should insert without a select first
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public Long getId() {
+        return slotId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    public static SlotTombstone of(Slot slot) {
+        return SlotTombstone.builder()
+                .slotId(slot.getId())
+                .teacherId(slot.getTeacher().getId())
+                .deletedAt(LocalDateTime.now())
+                .build();
+    }
+}
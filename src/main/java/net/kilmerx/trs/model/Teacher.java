@@ -32,8 +32,12 @@ public class Teacher {
     @Builder.Default
     private List<Skill> skills = new java.util.ArrayList<>();
 
+    /**
+     * Read-only view of the teacher's slots. Slots are written through SlotRepository
+     * (Slot owns the foreign key), so adding slots never has to initialize this collection.
+     */
     @JsonIgnore
-    @OneToMany(mappedBy = "teacher", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "teacher", cascade = CascadeType.REMOVE, fetch = FetchType.LAZY)
     @Builder.Default
     private List<Slot> availableSlots = new java.util.ArrayList<>();
 
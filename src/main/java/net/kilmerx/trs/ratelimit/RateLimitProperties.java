@@ -0,0 +1,62 @@
+package net.kilmerx.trs.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limits, by name, under {@code app.rate-limit.limits.<name>}.
+ */
+@Data
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+
+    public enum Key {
+        /** The client address, as resolved by the server's forwarded-header handling */
+        IP,
+        /** The authenticated user, or the username a login is attempted for */
+        USERNAME,
+        /**
+         * The username a login is attempted for, from one client address. Unlike {@link #USERNAME}
+         * it cannot be used to lock someone else out of their account.
+         */
+        USERNAME_IP
+    }
+
+    private boolean enabled = true;
+
+    /** Count what would be limited but let everything through */
+    private boolean shadow = false;
+
+    /** Buckets kept per limit; keys beyond that are counted as untracked */
+    private int maxKeys = 100_000;
+
+    private Duration evictInterval = Duration.ofMinutes(1);
+
+    private Map<String, Limit> limits = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        /** Path patterns, e.g. {@code /api/public/auth/**} */
+        private List<String> paths = new ArrayList<>();
+        /** HTTP methods; empty for all */
+        private List<String> methods = new ArrayList<>();
+        private Key key = Key.IP;
+        /** Requests allowed in a burst */
+        private int capacity;
+        /** Time to earn back a full burst */
+        private Duration period;
+        /** Overrides the global shadow setting for this limit */
+        private Boolean shadow;
+        /**
+         * Refuse untracked keys instead of letting them through, so spraying distinct keys cannot
+         * switch the limit off
+         */
+        private boolean failClosed = false;
+    }
+}
@@ -0,0 +1,149 @@
+package net.kilmerx.trs.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the configured {@link RateLimitProperties rate limits} to requests. Every limit whose
+ * paths and methods match takes a token for the request's key; the request is refused if any of
+ * them is empty. Limits in shadow mode only count what they would have refused.
+ */
+@Service
+@EnableConfigurationProperties(RateLimitProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitService {
+
+    private static final Decision ALLOWED = new Decision(true, 0);
+
+    private final RateLimitProperties properties;
+    private final TrsMetrics metrics;
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * @param retryAfterSeconds when refused, seconds until the request would be allowed
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+    }
+
+    private record Rule(String name, List<PathPattern> paths, Set<String> methods, RateLimitProperties.Key key,
+                        boolean shadow, boolean failClosed, TokenBucketLimiter limiter,
+                        Counter allowed, Counter limited, Counter shadowLimited, Counter untracked) {
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method))
+                    && paths.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        properties.getLimits().forEach((name, limit) -> {
+            TokenBucketLimiter limiter = new TokenBucketLimiter(limit.getCapacity(), limit.getPeriod(),
+                    properties.getMaxKeys());
+            rules.add(new Rule(name,
+                    limit.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                    limit.getMethods().stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toSet()),
+                    limit.getKey(),
+                    limit.getShadow() != null ? limit.getShadow() : properties.isShadow(),
+                    limit.isFailClosed(),
+                    limiter,
+                    counter(name, "allowed"),
+                    counter(name, "limited"),
+                    counter(name, "shadow_limited"),
+                    counter(name, "untracked")));
+            Gauge.builder("trs.ratelimit.buckets", limiter, TokenBucketLimiter::size)
+                    .tag("limit", name)
+                    .register(metrics.getRegistry());
+        });
+        log.info("Rate limits: {}", rules.stream()
+                .map(rule -> rule.name() + (rule.shadow() ? " (shadow)" : ""))
+                .collect(Collectors.joining(", ")));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && !rules.isEmpty();
+    }
+
+    /**
+     * Takes a token from every limit on this request that is keyed by {@code key}.
+     *
+     * @param value the client address or username; null skips the limits. {@code USERNAME_IP}
+     *              limits pair the username with the request's client address.
+     */
+    public Decision acquire(HttpServletRequest request, RateLimitProperties.Key key, String value) {
+        if (!properties.isEnabled() || value == null || value.isBlank()) {
+            return ALLOWED;
+        }
+        String bucketKey = switch (key) {
+            case IP -> value;
+            case USERNAME -> value.toLowerCase(Locale.ROOT);
+            case USERNAME_IP -> value.toLowerCase(Locale.ROOT) + "@" + request.getRemoteAddr();
+        };
+        String method = request.getMethod();
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        long now = System.nanoTime();
+
+        long waitNanos = 0;
+        for (Rule rule : rules) {
+            if (rule.key() != key || !rule.matches(method, path)) {
+                continue;
+            }
+            long wait = rule.limiter().tryAcquire(bucketKey, now);
+            if (wait == TokenBucketLimiter.UNTRACKED) {
+                rule.untracked().increment();
+                if (rule.failClosed() && !rule.shadow()) {
+                    // Refused until idle buckets are evicted and make room
+                    waitNanos = Math.max(waitNanos, rule.limiter().refillNanos());
+                }
+            } else if (wait == 0) {
+                rule.allowed().increment();
+            } else if (rule.shadow()) {
+                rule.shadowLimited().increment();
+            } else {
+                rule.limited().increment();
+                waitNanos = Math.max(waitNanos, wait);
+            }
+        }
+        if (waitNanos == 0) {
+            return ALLOWED;
+        }
+        return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = rules.stream().mapToInt(rule -> rule.limiter().evictIdle(now)).sum();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private Counter counter(String limit, String outcome) {
+        return Counter.builder("trs.ratelimit.requests")
+                .tag("limit", limit)
+                .tag("outcome", outcome)
+                .register(metrics.getRegistry());
+    }
+}
@@ -0,0 +1,94 @@
+package net.kilmerx.trs.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per key, without locks.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the GCRA form of a token bucket): taking a token moves that time forward by one refill
+ * interval, and is refused when it would end up more than a full bucket ahead of now. A take is
+ * one compare-and-set, and buckets live in a {@link ConcurrentHashMap}, whose bins are updated
+ * independently, so keys never contend with each other. A bucket that has refilled completely
+ * is the same as a new one, which is what {@link #evictIdle(long)} removes.
+ */
+public class TokenBucketLimiter {
+
+    /**
+     * Returned by {@link #tryAcquire(String, long)} when the key is new and {@code maxKeys}
+     * buckets already exist; the caller decides whether to let it through.
+     */
+    public static final long UNTRACKED = -1;
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity tokens in a full bucket
+     * @param period   time to refill an empty bucket
+     */
+    public TokenBucketLimiter(int capacity, Duration period, int maxKeys) {
+        if (capacity < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        this.nanosPerToken = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = nanosPerToken * capacity;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a token for the key.
+     *
+     * @param now {@link System#nanoTime()}
+     * @return 0 when a token was taken, otherwise the nanoseconds until one is available, or
+     * {@link #UNTRACKED}
+     */
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                return UNTRACKED;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes buckets that are full again. A caller that looked a bucket up just before it was
+     * removed still takes its token from the removed one, so a key gets at most one extra token.
+     *
+     * @return the number of buckets removed
+     */
+    public int evictIdle(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return Math.max(0, before - buckets.size());
+    }
+
+    /**
+     * Nanoseconds it takes to earn back one token.
+     */
+    public long refillNanos() {
+        return nanosPerToken;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
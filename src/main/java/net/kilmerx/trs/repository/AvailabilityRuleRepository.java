@@ -0,0 +1,26 @@
+package net.kilmerx.trs.repository;
+
+import jakarta.persistence.LockModeType;
+import net.kilmerx.trs.model.AvailabilityRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRule, Long> {
+    List<AvailabilityRule> findByTeacherId(Long teacherId);
+
+    @Query("select r.id from AvailabilityRule r where r.validUntil >= :today and r.materializedUntil < :horizon "
+            + "and r.materializedUntil <= r.validUntil")
+    List<Long> findIdsNeedingMaterialization(@Param("today") LocalDate today, @Param("horizon") LocalDate horizon);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from AvailabilityRule r where r.id = :id")
+    Optional<AvailabilityRule> findByIdForUpdate(@Param("id") Long id);
+}
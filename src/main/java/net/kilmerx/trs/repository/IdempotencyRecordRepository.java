@@ -0,0 +1,36 @@
+package net.kilmerx.trs.repository;
+
+import net.kilmerx.trs.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Takes over a key whose request has been running since before {@code staleBefore}.
+     */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.lockedAt = :now where r.id = :id "
+            + "and r.status = net.kilmerx.trs.model.IdempotencyRecord.Status.IN_PROGRESS and r.lockedAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = net.kilmerx.trs.model.IdempotencyRecord.Status.COMPLETED, "
+            + "r.responseStatus = :responseStatus, r.responseBody = :responseBody where r.id = :id")
+    int complete(@Param("id") Long id, @Param("responseStatus") int responseStatus,
+            @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
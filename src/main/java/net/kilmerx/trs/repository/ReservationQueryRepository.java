@@ -0,0 +1,22 @@
+package net.kilmerx.trs.repository;
+
+import net.kilmerx.trs.dto.ReservationSummaryDTO;
+import net.kilmerx.trs.model.Reservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reservation listings with optional filters, implemented with the Criteria API so that
+ * absent filters are left out of the SQL rather than compared against null.
+ */
+public interface ReservationQueryRepository {
+
+    /**
+     * A student's reservations, latest slot first, optionally limited to a status and to slots
+     * starting in [from, to).
+     */
+    Slice<ReservationSummaryDTO> findStudentReservations(Long studentId, Reservation.ReservationStatus status,
+                                                         LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package net.kilmerx.trs.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.dto.ReservationSummaryDTO;
+import net.kilmerx.trs.model.Reservation;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReservationQueryRepositoryImpl implements ReservationQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<ReservationSummaryDTO> findStudentReservations(Long studentId, Reservation.ReservationStatus status,
+                                                                LocalDateTime from, LocalDateTime to,
+                                                                Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReservationSummaryDTO> query = cb.createQuery(ReservationSummaryDTO.class);
+        Root<Reservation> reservation = query.from(Reservation.class);
+        Join<Reservation, Slot> slot = reservation.join("slot");
+        Join<Slot, Teacher> teacher = slot.join("teacher");
+        Join<Teacher, User> user = teacher.join("user");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(reservation.get("student").get("id"), studentId));
+        if (status != null) {
+            predicates.add(cb.equal(reservation.get("status"), status));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(slot.get("startDateTime"), from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(slot.get("startDateTime"), to));
+        }
+
+        query.select(cb.construct(ReservationSummaryDTO.class,
+                        reservation.get("id"),
+                        reservation.get("status").cast(String.class),
+                        slot.get("id"),
+                        slot.get("startDateTime"),
+                        slot.get("endDateTime"),
+                        teacher.get("id"),
+                        user.get("username"),
+                        reservation.get("holdExpiresAt"),
+                        reservation.get("createdAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(slot.get("startDateTime")), cb.desc(reservation.get("id")));
+
+        // One extra row tells whether another page follows, without a count query
+        List<ReservationSummaryDTO> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+}
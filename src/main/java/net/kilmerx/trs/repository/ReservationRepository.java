@@ -1,18 +1,115 @@
 package net.kilmerx.trs.repository;
 
+import net.kilmerx.trs.dto.ReservationArchiveRow;
 import net.kilmerx.trs.model.Reservation;
 import net.kilmerx.trs.model.Student;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationQueryRepository {
+
+    interface HoldExpiry {
+        Long getId();
+
+        LocalDateTime getHoldExpiresAt();
+    }
+
     List<Reservation> findByStudent(Student student);
 
     List<Reservation> findByStudentId(Long studentId);
 
     Optional<Reservation> findByStudentAndSlotId(Student student, Long slotId);
+
+    @Query("select r.slot.id from Reservation r where r.id = :reservationId")
+    Optional<Long> findSlotIdById(@Param("reservationId") Long reservationId);
+
+    // Hold queries use the enum literal so that Postgres can match ix_reservations_held_expiry
+
+    @Query("select r.id as id, r.holdExpiresAt as holdExpiresAt from Reservation r "
+            + "where r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.HELD")
+    List<HoldExpiry> findHoldExpiries();
+
+    @Query("select r.id from Reservation r "
+            + "where r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.HELD "
+            + "and r.holdExpiresAt <= :now order by r.holdExpiresAt")
+    List<Long> findExpiredHoldIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Turns an unexpired hold of the student into an active reservation.
+     * Returns 0 when the hold does not exist, is not the student's, or is no longer held.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.ACTIVE, "
+            + "r.updatedAt = :now where r.id = :reservationId and r.student.id = :studentId "
+            + "and r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.HELD and r.holdExpiresAt > :now")
+    int confirmHold(@Param("reservationId") Long reservationId, @Param("studentId") Long studentId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Cancels a hold that has lapsed. Returns 0 when it was confirmed, cancelled or expired already.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.CANCELLED, "
+            + "r.updatedAt = :now where r.id = :reservationId "
+            + "and r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.HELD and r.holdExpiresAt <= :now")
+    int expireHold(@Param("reservationId") Long reservationId, @Param("now") LocalDateTime now);
+
+    /**
+     * Cancels a held or active reservation. Returns 0 when it is neither any more, so that
+     * concurrent cancel and expiry never both release the slot.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.CANCELLED, "
+            + "r.updatedAt = :now where r.id = :reservationId and r.status in ("
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.HELD, "
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.ACTIVE)")
+    int cancelLive(@Param("reservationId") Long reservationId, @Param("now") LocalDateTime now);
+
+    /**
+     * ACTIVE reservations whose slot ended before {@code now}, after {@code afterId} in id order.
+     */
+    @Query("select r.id from Reservation r "
+            + "where r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.ACTIVE "
+            + "and r.id > :afterId and r.slot.endDateTime <= :now order by r.id")
+    List<Long> findEndedActiveIds(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Completes the reservations that are still ACTIVE; a concurrent cancel wins.
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.COMPLETED, "
+            + "r.updatedAt = :now where r.id in :reservationIds "
+            + "and r.status = net.kilmerx.trs.model.Reservation.ReservationStatus.ACTIVE")
+    int completeActive(@Param("reservationIds") Collection<Long> reservationIds, @Param("now") LocalDateTime now);
+
+    // Archival (ArchiveService): only completed and cancelled reservations, which never change again
+
+    @Query("select min(r.createdAt) from Reservation r where r.status in ("
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.COMPLETED, "
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.CANCELLED)")
+    Optional<LocalDateTime> findMinFinishedCreatedAt();
+
+    @Query("select new net.kilmerx.trs.dto.ReservationArchiveRow(r.id, r.student.id, r.slot.id, r.status, "
+            + "r.holdExpiresAt, r.createdAt, r.updatedAt) from Reservation r "
+            + "where r.createdAt >= :from and r.createdAt < :to and r.id > :afterId and r.status in ("
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.COMPLETED, "
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.CANCELLED) order by r.id")
+    List<ReservationArchiveRow> findArchivable(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("delete from Reservation r where r.id in :reservationIds and r.status in ("
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.COMPLETED, "
+            + "net.kilmerx.trs.model.Reservation.ReservationStatus.CANCELLED)")
+    int deleteArchived(@Param("reservationIds") Collection<Long> reservationIds);
 }
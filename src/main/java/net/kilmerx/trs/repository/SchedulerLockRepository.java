@@ -0,0 +1,27 @@
+package net.kilmerx.trs.repository;
+
+import net.kilmerx.trs.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Takes the lock if it has lapsed or is already ours. Returns 0 when another node holds it.
+     */
+    @Modifying
+    @Query("update SchedulerLock l set l.lockedUntil = :until, l.lockedAt = :now, l.lockedBy = :owner "
+            + "where l.name = :name and (l.lockedUntil <= :now or l.lockedBy = :owner)")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update SchedulerLock l set l.lockedUntil = :now where l.name = :name and l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
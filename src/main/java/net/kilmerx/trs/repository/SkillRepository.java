@@ -3,8 +3,11 @@ package net.kilmerx.trs.repository;
 import net.kilmerx.trs.model.Skill;
 import net.kilmerx.trs.model.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,9 @@ public interface SkillRepository extends JpaRepository<Skill, Long> {
     List<Skill> findByTeacher(Teacher teacher);
 
     List<Skill> findByTeacherId(Long teacherId);
+
+    List<Skill> findByTeacherIdIn(Collection<Long> teacherIds);
+
+    @Query("select distinct s.teacher.id from Skill s where lower(s.skillName) = lower(:skillName)")
+    List<Long> findTeacherIdsBySkillName(@Param("skillName") String skillName);
 }
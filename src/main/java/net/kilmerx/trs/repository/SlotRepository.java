@@ -1,15 +1,47 @@
 package net.kilmerx.trs.repository;
 
+import jakarta.persistence.LockModeType;
+import net.kilmerx.trs.dto.SlotArchiveRow;
 import net.kilmerx.trs.model.Slot;
 import net.kilmerx.trs.model.Teacher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SlotRepository extends JpaRepository<Slot, Long> {
+
+    /**
+     * Slim projection of a slot's time window, used to feed the availability index.
+     */
+    interface SlotWindow {
+        Long getId();
+
+        Long getTeacherId();
+
+        LocalDateTime getStartDateTime();
+
+        LocalDateTime getEndDateTime();
+    }
+
+    /**
+     * A slot's window plus its availability and last write time, used by delta sync.
+     */
+    interface SlotVersion extends SlotWindow {
+        Boolean getAvailable();
+
+        LocalDateTime getUpdatedAt();
+    }
+
     List<Slot> findByTeacher(Teacher teacher);
 
     List<Slot> findByTeacherId(Long teacherId);
@@ -18,4 +50,76 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
 
     List<Slot> findByStartDateTimeAfterAndStartDateTimeBeforeAndTeacherId(LocalDateTime start, LocalDateTime end,
             Long teacherId);
+
+    List<Slot> findByTeacherIdInAndAvailableTrueAndEndDateTimeAfterOrderByStartDateTime(Collection<Long> teacherIds,
+            LocalDateTime after);
+
+    Optional<Slot> findFirstByTeacherIdAndStartDateTime(Long teacherId, LocalDateTime startDateTime);
+
+    List<Slot> findByRuleIdAndAvailableTrueAndStartDateTimeAfter(Long ruleId, LocalDateTime after);
+
+    @Query("select s.startDateTime from Slot s where s.teacher.id = :teacherId "
+            + "and s.startDateTime between :from and :to")
+    List<LocalDateTime> findStartDateTimesByTeacherIdBetween(@Param("teacherId") Long teacherId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select s.id as id, s.teacher.id as teacherId, s.startDateTime as startDateTime, "
+            + "s.endDateTime as endDateTime from Slot s where s.available = true and s.endDateTime > :after")
+    List<SlotWindow> findAvailableWindowsEndingAfter(@Param("after") LocalDateTime after);
+
+    @Query("select s.id as id, s.teacher.id as teacherId, s.startDateTime as startDateTime, "
+            + "s.endDateTime as endDateTime from Slot s where s.id = :slotId")
+    Optional<SlotWindow> findWindowById(@Param("slotId") Long slotId);
+
+    /**
+     * Slots written after the (updatedAt, id) position and before {@code until}, in that order.
+     */
+    @Query("select s.id as id, s.teacher.id as teacherId, s.startDateTime as startDateTime, "
+            + "s.endDateTime as endDateTime, s.available as available, s.updatedAt as updatedAt from Slot s "
+            + "where (s.updatedAt > :after or (s.updatedAt = :after and s.id > :afterId)) "
+            + "and s.updatedAt < :until order by s.updatedAt, s.id")
+    List<SlotVersion> findChangedAfter(@Param("after") LocalDateTime after, @Param("afterId") Long afterId,
+            @Param("until") LocalDateTime until, Limit limit);
+
+    /**
+     * Locks the given slots in id order, so that overlapping batch bookings cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Slot s where s.id in :slotIds order by s.id")
+    List<Slot> findAllByIdForUpdate(@Param("slotIds") Collection<Long> slotIds);
+
+    /**
+     * Set-based version of {@link #claimSlot}; returns how many of the slots were claimed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Slot s set s.available = false, s.updatedAt = :now where s.id in :slotIds and s.available = true")
+    int claimSlots(@Param("slotIds") Collection<Long> slotIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Atomically flips an available slot to unavailable.
+     * Returns 1 when this caller won the slot, 0 when it was already taken or does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Slot s set s.available = false, s.updatedAt = :now where s.id = :slotId and s.available = true")
+    int claimSlot(@Param("slotId") Long slotId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Slot s set s.available = true, s.updatedAt = :now where s.id = :slotId")
+    int releaseSlot(@Param("slotId") Long slotId, @Param("now") LocalDateTime now);
+
+    // Archival (ArchiveService): only slots no reservation points at any more can go
+
+    @Query("select min(s.startDateTime) from Slot s")
+    Optional<LocalDateTime> findMinStartDateTime();
+
+    @Query("select new net.kilmerx.trs.dto.SlotArchiveRow(s.id, s.teacher.id, s.startDateTime, s.endDateTime, "
+            + "s.available, s.ruleId, s.createdAt, s.updatedAt) from Slot s "
+            + "where s.startDateTime >= :from and s.startDateTime < :to and s.id > :afterId "
+            + "and not exists (select r.id from Reservation r where r.slot = s) order by s.id")
+    List<SlotArchiveRow> findArchivable(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("delete from Slot s where s.id in :slotIds and not exists (select r.id from Reservation r where r.slot = s)")
+    int deleteArchived(@Param("slotIds") Collection<Long> slotIds);
 }
@@ -0,0 +1,26 @@
+package net.kilmerx.trs.repository;
+
+import net.kilmerx.trs.model.SlotTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SlotTombstoneRepository extends JpaRepository<SlotTombstone, Long> {
+
+    @Query("select t from SlotTombstone t "
+            + "where (t.deletedAt > :after or (t.deletedAt = :after and t.slotId > :afterId)) "
+            + "and t.deletedAt < :until order by t.deletedAt, t.slotId")
+    List<SlotTombstone> findDeletedAfter(@Param("after") LocalDateTime after,
+            @Param("afterId") Long afterId, @Param("until") LocalDateTime until, Limit limit);
+
+    @Modifying
+    @Query("delete from SlotTombstone t where t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
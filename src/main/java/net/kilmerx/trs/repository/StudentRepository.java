@@ -3,6 +3,8 @@ package net.kilmerx.trs.repository;
 import net.kilmerx.trs.model.Student;
 import net.kilmerx.trs.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +14,7 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByUser(User user);
 
     Optional<Student> findByUserId(Long userId);
+
+    @Query("select s.id from Student s where s.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
 }
@@ -1,7 +1,9 @@
 package net.kilmerx.trs.repository;
 
 import net.kilmerx.trs.model.TeacherRegistrationRequestEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,12 @@ import java.util.List;
 public interface TeacherRegistrationRequestRepository extends JpaRepository<TeacherRegistrationRequestEntity, Long> {
     boolean existsByUsernameAndStatus(String username, TeacherRegistrationRequestEntity.RequestStatus status);
 
+    // The listings fetch the skills in the same query instead of one query per request
+
+    @EntityGraph(attributePaths = "skills")
+    @Query("select r from TeacherRegistrationRequestEntity r")
+    List<TeacherRegistrationRequestEntity> findAllWithSkills();
+
+    @EntityGraph(attributePaths = "skills")
     List<TeacherRegistrationRequestEntity> findAllByStatus(TeacherRegistrationRequestEntity.RequestStatus status);
 }
@@ -2,9 +2,14 @@ package net.kilmerx.trs.repository;
 
 import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,16 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     Optional<Teacher> findByUser(User user);
 
     Optional<Teacher> findByUserId(Long userId);
+
+    @Query("select t.id from Teacher t where t.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Query("select t.id from Teacher t where t.id > :afterId order by t.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select t from Teacher t join fetch t.user where t.id in :ids")
+    List<Teacher> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t from Teacher t join fetch t.user where t.id = :id")
+    Optional<Teacher> findWithUserById(@Param("id") Long id);
 }
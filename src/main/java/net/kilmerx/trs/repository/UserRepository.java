@@ -2,6 +2,8 @@ package net.kilmerx.trs.repository;
 
 import net.kilmerx.trs.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +17,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.enabled from User u where u.id = :userId")
+    Optional<Boolean> findEnabledById(@Param("userId") Long userId);
 }
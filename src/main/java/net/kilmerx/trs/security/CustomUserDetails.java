@@ -14,6 +14,16 @@ public class CustomUserDetails implements UserDetails {
 
     private User user;
 
+    /**
+     * Id of the teacher or student profile, when known. Null for admins and for
+     * principals loaded from the database.
+     */
+    private Long profileId;
+
+    public CustomUserDetails(User user) {
+        this(user, null);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -52,4 +62,8 @@ public class CustomUserDetails implements UserDetails {
     public User getUser() {
         return user;
     }
+
+    public Long getProfileId() {
+        return profileId;
+    }
 }
@@ -1,11 +1,15 @@
 package net.kilmerx.trs.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,24 +26,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenDenyList tokenDenyList;
+    private final UserStatusCache userStatusCache;
+    private final TrsMetrics metrics;
+
+    @Value("${jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        try {
-            String jwt = extractTokenFromRequest(request);
-            if (jwt != null && !jwt.isEmpty()) {
-                String username = tokenProvider.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        String jwt = extractTokenFromRequest(request);
+        if (jwt != null && !jwt.isEmpty()) {
+            Timer.Sample sample = Timer.start(metrics.getRegistry());
+            String outcome = TrsMetrics.OUTCOME_SUCCESS;
+            try {
+                // Signature and expiry are verified here, once
+                Claims claims = tokenProvider.parseClaims(jwt);
+
+                UserDetails userDetails = null;
+                if (!tokenDenyList.isDenied(claims.getId())) {
+                    userDetails = statelessPrincipal && tokenProvider.hasPrincipalClaims(claims)
+                            ? tokenProvider.buildPrincipal(claims, userStatusCache.isEnabled(
+                                    claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class)))
+                            : userDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
-                if (tokenProvider.isTokenValid(jwt, userDetails)) {
+                // Disabled users keep valid-looking tokens until they expire; refuse them here
+                if (userDetails != null && userDetails.isEnabled()) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    outcome = TrsMetrics.OUTCOME_UNAUTHORIZED;
                 }
+            } catch (Exception ex) {
+                outcome = TrsMetrics.OUTCOME_UNAUTHORIZED;
+                log.error("Could not set user authentication in security context", ex);
+            } finally {
+                sample.stop(metrics.timer("trs.auth.jwt_filter", outcome));
             }
-        } catch (Exception ex) {
-            log.error("Could not set user authentication in security context", ex);
         }
 
         filterChain.doFilter(request, response);
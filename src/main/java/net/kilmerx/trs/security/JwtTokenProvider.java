@@ -1,9 +1,12 @@
 package net.kilmerx.trs.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,20 +15,44 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 @RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_PROFILE_ID = "profileId";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            User user = customUserDetails.getUser();
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            if (customUserDetails.getProfileId() != null) {
+                claims.put(CLAIM_PROFILE_ID, customUserDetails.getProfileId());
+            }
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -37,48 +64,58 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), io.jsonwebtoken.SignatureAlgorithm.HS256)
+                .signWith(signingKey, io.jsonwebtoken.SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies the signature and expiry of the token once and returns its claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} when the token is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Whether the token carries everything needed to build a principal without a user lookup.
+     * Tokens issued before these claims existed fall back to the database.
+     */
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null && claims.get(CLAIM_ROLE) != null;
     }
 
-    public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    /**
+     * Builds the principal from the token claims. The claims cannot say whether the user has been
+     * disabled since the token was issued, so the caller supplies that from {@link UserStatusCache}.
+     */
+    public CustomUserDetails buildPrincipal(Claims claims, boolean enabled) {
+        User user = User.builder()
+                .id(claims.get(CLAIM_USER_ID, Long.class))
+                .username(claims.getSubject())
+                .role(User.UserRole.valueOf(claims.get(CLAIM_ROLE, String.class)))
+                .enabled(enabled)
+                .build();
+        return new CustomUserDetails(user, claims.get(CLAIM_PROFILE_ID, Long.class));
     }
 
-    public Boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return extractedUsername.equals(username) && !isTokenExpired(token);
+    public String extractUsername(String token) {
+        return extractClaim(token, Claims::getSubject);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        final Claims claims = parseClaims(token);
+        return claimsResolver.apply(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(token, userDetails.getUsername());
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public Boolean isTokenValid(String token, String username) {
+        final Claims claims = parseClaims(token);
+        return claims.getSubject().equals(username) && !claims.getExpiration().before(new Date());
     }
 }
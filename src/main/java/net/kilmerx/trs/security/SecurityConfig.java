@@ -1,6 +1,8 @@
 package net.kilmerx.trs.security;
 
 import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,9 +31,22 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserDetailsService userDetailsService;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /** Port of the actuator's own server; -1 when actuator shares the application port */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    /**
+     * BCrypt on its own bounded pool; see {@link BoundedPasswordEncoder}.
+     */
+    @Bean(destroyMethod = "close")
+    public PasswordEncoder passwordEncoder(
+            TrsMetrics metrics,
+            @Value("${app.password.bcrypt-strength:10}") int strength,
+            @Value("${app.password.hash-threads:0}") int threads,
+            @Value("${app.password.queue-capacity:100}") int queueCapacity) {
+        int hashThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), hashThreads, queueCapacity,
+                metrics.getRegistry());
     }
 
     @Bean
@@ -49,6 +64,11 @@ public class SecurityConfig {
                 })
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/public/**").permitAll()
+                        .requestMatchers("/actuator/health", "/livez", "/readyz").permitAll()
+                        // Metrics only on the management port, which is not publicly routed
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+                        .permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/teacher/**").hasRole("TEACHER")
                         .requestMatchers("/api/student/**").hasRole("STUDENT")
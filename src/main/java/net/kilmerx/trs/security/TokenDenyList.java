@@ -0,0 +1,57 @@
+package net.kilmerx.trs.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked token ids (jti).
+ * Entries only need to live until the token would have expired anyway, so the list stays small.
+ */
+@Component
+@Slf4j
+public class TokenDenyList {
+
+    private final Map<String, Long> deniedUntil = new ConcurrentHashMap<>();
+
+    @Value("${jwt.deny-list.max-size:10000}")
+    private int maxSize;
+
+    public void deny(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null) {
+            return;
+        }
+        if (deniedUntil.size() >= maxSize) {
+            purgeExpired();
+        }
+        if (deniedUntil.size() >= maxSize) {
+            log.warn("Token deny-list is full ({} entries); revocation of {} ignored", maxSize, tokenId);
+            return;
+        }
+        deniedUntil.put(tokenId, expiration.getTime());
+    }
+
+    public boolean isDenied(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Long until = deniedUntil.get(tokenId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            deniedUntil.remove(tokenId, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        deniedUntil.values().removeIf(until -> until < now);
+    }
+}
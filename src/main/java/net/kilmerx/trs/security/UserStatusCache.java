@@ -0,0 +1,49 @@
+package net.kilmerx.trs.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import net.kilmerx.trs.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Whether a user may still authenticate, read from the users table and cached briefly.
+ * Principals built from token claims never touch the database otherwise, so this is what makes
+ * disabling (or deleting) a user revoke tokens that were already issued, on every node, within
+ * {@code jwt.user-status.ttl}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final TrsMetrics metrics;
+
+    @Value("${jwt.user-status.ttl:PT30S}")
+    private Duration ttl;
+
+    @Value("${jwt.user-status.max-size:100000}")
+    private long maxSize;
+
+    private LoadingCache<Long, Boolean> enabled;
+
+    @PostConstruct
+    void init() {
+        enabled = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(userId -> userRepository.findEnabledById(userId).orElse(false));
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), enabled, "trs.auth.user_status");
+    }
+
+    public boolean isEnabled(Long userId) {
+        return userId != null && enabled.get(userId);
+    }
+}
@@ -0,0 +1,194 @@
+package net.kilmerx.trs.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.ReservationArchiveRow;
+import net.kilmerx.trs.dto.SlotArchiveRow;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves history older than the archive horizon out of the database, one calendar month at a
+ * time: completed and cancelled reservations by creation month, then slots by start month once
+ * no reservation points at them. Each month is streamed in keyset chunks to a gzipped NDJSON
+ * file in the archive directory ({@code reservations-2025-01.ndjson.gz}, ...), and only after
+ * the file is complete are exactly the archived rows deleted, chunk by chunk.
+ * <p>
+ * Runs on one node at a time. A crash between writing a file and deleting its rows leaves them
+ * in place, so the next run archives them again into a new file; consumers should dedupe by id.
+ * Archived slots are in the past and produce no delta sync tombstones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveService {
+
+    static final String LOCK_NAME = "archive";
+
+    private final SlotRepository slotRepository;
+    private final ReservationRepository reservationRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.archive.dir:archive/}")
+    private String archiveDir;
+
+    @Value("${app.archive.horizon-months:12}")
+    private int horizonMonths;
+
+    @Value("${app.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.archive.lock-at-most-for:PT2H}")
+    private Duration lockAtMostFor;
+
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        schedulerLockService.runExclusively(LOCK_NAME, lockAtMostFor, this::archiveOldMonths);
+    }
+
+    private void archiveOldMonths() {
+        YearMonth horizon = YearMonth.now().minusMonths(horizonMonths);
+
+        // Reservations first, so that their slots are no longer referenced
+        reservationRepository.findMinFinishedCreatedAt().ifPresent(oldest -> {
+            for (YearMonth month = YearMonth.from(oldest); month.isBefore(horizon); month = month.plusMonths(1)) {
+                archiveMonth("reservations", month,
+                        (from, to, afterId) -> reservationRepository.findArchivable(from, to, afterId, Limit.of(batchSize)),
+                        ReservationArchiveRow::getId,
+                        reservationRepository::deleteArchived);
+            }
+        });
+        slotRepository.findMinStartDateTime().ifPresent(oldest -> {
+            for (YearMonth month = YearMonth.from(oldest); month.isBefore(horizon); month = month.plusMonths(1)) {
+                archiveMonth("slots", month,
+                        (from, to, afterId) -> slotRepository.findArchivable(from, to, afterId, Limit.of(batchSize)),
+                        SlotArchiveRow::getId,
+                        slotRepository::deleteArchived);
+            }
+        });
+    }
+
+    private interface ChunkReader<T> {
+        List<T> read(LocalDateTime from, LocalDateTime to, Long afterId);
+    }
+
+    private <T> void archiveMonth(String table, YearMonth month, ChunkReader<T> reader, Function<T, Long> id,
+                                  ToIntFunction<Collection<Long>> delete) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        List<Long> archived = new ArrayList<>();
+        Path file;
+        try {
+            file = writeArchive(table, month, writer -> {
+                Long afterId = 0L;
+                List<T> chunk;
+                do {
+                    Long after = afterId;
+                    chunk = transactionTemplate.execute(status -> reader.read(from, to, after));
+                    if (chunk == null || chunk.isEmpty()) {
+                        break;
+                    }
+                    for (T row : chunk) {
+                        writer.write(jsonMapper.writeValueAsString(row));
+                        writer.write('\n');
+                        archived.add(id.apply(row));
+                    }
+                    afterId = archived.get(archived.size() - 1);
+                } while (chunk.size() == batchSize);
+                return archived.size();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error archiving " + table + " for " + month, e);
+        }
+        if (file == null) {
+            return;
+        }
+
+        int deleted = 0;
+        for (int i = 0; i < archived.size(); i += batchSize) {
+            List<Long> ids = archived.subList(i, Math.min(i + batchSize, archived.size()));
+            Integer count = transactionTemplate.execute(status -> delete.applyAsInt(ids));
+            deleted += count == null ? 0 : count;
+        }
+        log.info("Archived {} {} of {} to {} ({} deleted)", archived.size(), table, month, file.getFileName(), deleted);
+    }
+
+    private interface ArchiveBody {
+        /**
+         * @return number of rows written
+         */
+        int writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Writes to a temporary file and moves it into place once complete.
+     *
+     * @return the archive file, or null when there was nothing to archive
+     */
+    private Path writeArchive(String table, YearMonth month, ArchiveBody body) throws IOException {
+        Path folder = Paths.get(archiveDir).toAbsolutePath().normalize();
+        Files.createDirectories(folder);
+        Path tmp = Files.createTempFile(folder, table + "-", ".tmp");
+        try {
+            int rows;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+                rows = body.writeTo(writer);
+            }
+            if (rows == 0) {
+                Files.delete(tmp);
+                return null;
+            }
+            Path file = archiveFile(folder, table, month);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private static Path archiveFile(Path folder, String table, YearMonth month) {
+        Path file = folder.resolve(table + "-" + month + ".ndjson.gz");
+        // Never overwrite an earlier archive of the same month
+        for (int run = 1; Files.exists(file); run++) {
+            file = folder.resolve(table + "-" + month + "." + run + ".ndjson.gz");
+        }
+        return file;
+    }
+}
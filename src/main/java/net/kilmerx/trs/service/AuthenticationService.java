@@ -1,17 +1,22 @@
 package net.kilmerx.trs.service;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.kilmerx.trs.dto.AuthRequest;
 import net.kilmerx.trs.dto.AuthResponse;
 import net.kilmerx.trs.dto.TeacherRegistrationRequest;
+import net.kilmerx.trs.event.TeacherCreatedEvent;
+import net.kilmerx.trs.metrics.TrsMetrics;
 import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.repository.StudentRepository;
 import net.kilmerx.trs.repository.TeacherRepository;
 import net.kilmerx.trs.repository.UserRepository;
 import net.kilmerx.trs.security.CustomUserDetails;
 import net.kilmerx.trs.security.JwtTokenProvider;
-import net.kilmerx.trs.util.SlotGenerator;
+import net.kilmerx.trs.security.TokenDenyList;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -26,10 +31,15 @@ public class AuthenticationService {
 
     private final UserRepository userRepository;
     private final TeacherRepository teacherRepository;
+    private final StudentRepository studentRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final TokenDenyList tokenDenyList;
+    private final TrsMetrics metrics;
     private final SkillService skillService;
+    private final SlotService slotService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AuthResponse registerTeacher(TeacherRegistrationRequest request) {
@@ -59,6 +69,7 @@ public class AuthenticationService {
                 .build();
 
         teacher = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new TeacherCreatedEvent(teacher.getId()));
 
         // Add skills
         if (request.getSkills() != null && !request.getSkills().isEmpty()) {
@@ -70,9 +81,7 @@ public class AuthenticationService {
         // Add slots from ranges
         if (request.getSlotRanges() != null && !request.getSlotRanges().isEmpty()) {
             try {
-                var slots = SlotGenerator.generateSlotsFromRanges(request.getSlotRanges(), teacher);
-                teacher.getAvailableSlots().addAll(slots);
-                teacherRepository.save(teacher);
+                slotService.addSlotsFromRanges(teacher.getId(), request.getSlotRanges());
             } catch (Exception e) {
                 log.error("Error adding slots for teacher: {}", e.getMessage());
                 throw new RuntimeException("Invalid slot ranges: " + e.getMessage());
@@ -80,7 +89,7 @@ public class AuthenticationService {
         }
 
         // Generate token
-        String token = tokenProvider.generateToken(request.getUsername(), java.util.Map.of("userId", user.getId()));
+        String token = tokenProvider.generateToken(new CustomUserDetails(user, teacher.getId()));
 
         return AuthResponse.builder()
                 .token(token)
@@ -91,13 +100,16 @@ public class AuthenticationService {
     }
 
     public AuthResponse authenticate(AuthRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+        // Dominated by the BCrypt comparison
+        Authentication authentication = metrics.record("trs.auth.authenticate",
+                () -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())));
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         User user = userDetails.getUser();
 
-        String token = tokenProvider.generateToken(userDetails);
+        // Bake the profile id into the token so requests don't have to look it up
+        String token = tokenProvider.generateToken(new CustomUserDetails(user, resolveProfileId(user)));
 
         return AuthResponse.builder()
                 .token(token)
@@ -106,4 +118,18 @@ public class AuthenticationService {
                 .userId(user.getId())
                 .build();
     }
+
+    public void logout(String token) {
+        Claims claims = tokenProvider.parseClaims(token);
+        tokenDenyList.deny(claims.getId(), claims.getExpiration());
+        log.info("Token revoked for user: {}", claims.getSubject());
+    }
+
+    private Long resolveProfileId(User user) {
+        return switch (user.getRole()) {
+            case TEACHER -> teacherRepository.findIdByUserId(user.getId()).orElse(null);
+            case STUDENT -> studentRepository.findIdByUserId(user.getId()).orElse(null);
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,219 @@
+package net.kilmerx.trs.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.AvailabilityRuleDTO;
+import net.kilmerx.trs.dto.AvailabilityRuleRequest;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.model.AvailabilityRule;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.SlotTombstone;
+import net.kilmerx.trs.repository.AvailabilityRuleRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.SlotTombstoneRepository;
+import net.kilmerx.trs.repository.TeacherRepository;
+import net.kilmerx.trs.util.SlotGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring availability. Rules are stored compactly and only turned into concrete slots
+ * inside a rolling horizon, or on demand when a student reserves an occurrence beyond it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityRuleService {
+
+    private static final long MAX_RULE_DAYS = 366;
+
+    private final AvailabilityRuleRepository ruleRepository;
+    private final TeacherRepository teacherRepository;
+    private final SlotRepository slotRepository;
+    private final SlotTombstoneRepository slotTombstoneRepository;
+    private final SlotService slotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.availability.rule-horizon-days:14}")
+    private int horizonDays;
+
+    @Transactional
+    public AvailabilityRuleDTO createRule(Long teacherId, AvailabilityRuleRequest request) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Teacher not found");
+        }
+        validateRequest(request);
+
+        AvailabilityRule rule = AvailabilityRule.builder()
+                .teacher(teacherRepository.getReferenceById(teacherId))
+                .dayOfWeek(request.getDayOfWeek())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .validFrom(request.getValidFrom())
+                .validUntil(request.getValidUntil())
+                .exceptions(request.getExceptions() == null
+                        ? new HashSet<>()
+                        : new HashSet<>(request.getExceptions()))
+                .materializedUntil(request.getValidFrom())
+                .build();
+
+        rule = ruleRepository.save(rule);
+        materialize(rule, horizonEnd());
+
+        log.info("Availability rule {} created for teacher: {}", rule.getId(), teacherId);
+
+        return convertToDTO(rule, teacherId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvailabilityRuleDTO> getTeacherRules(Long teacherId) {
+        return ruleRepository.findByTeacherId(teacherId).stream()
+                .map(rule -> convertToDTO(rule, teacherId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Deletes the rule together with its future, still unreserved slots.
+     * Reserved and past slots are kept.
+     */
+    @Transactional
+    public void deleteRule(Long ruleId, Long teacherId) {
+        AvailabilityRule rule = ruleRepository.findById(ruleId)
+                .orElseThrow(() -> new RuntimeException("Availability rule not found"));
+
+        if (!rule.getTeacher().getId().equals(teacherId)) {
+            throw new RuntimeException("Availability rule does not belong to this teacher");
+        }
+
+        List<Slot> slots = slotRepository.findByRuleIdAndAvailableTrueAndStartDateTimeAfter(
+                ruleId, LocalDateTime.now());
+        slotRepository.deleteAll(slots);
+        slotTombstoneRepository.saveAll(slots.stream().map(SlotTombstone::of).collect(Collectors.toList()));
+        ruleRepository.delete(rule);
+
+        log.info("Availability rule {} deleted with {} future slots", ruleId, slots.size());
+
+        if (!slots.isEmpty()) {
+            eventPublisher.publishEvent(new SlotChangedEvent(teacherId, SlotChangedEvent.ChangeType.DELETED,
+                    slots.stream().map(this::convertSlot).collect(Collectors.toList())));
+        }
+    }
+
+    /**
+     * Returns the id of the slot for one occurrence of a rule, creating it if it has not been
+     * materialized yet. Concurrent callers are serialized on the rule row, so an occurrence
+     * is never materialized twice.
+     */
+    @Transactional
+    public Long materializeOccurrence(Long ruleId, LocalDateTime start) {
+        AvailabilityRule rule = ruleRepository.findByIdForUpdate(ruleId)
+                .orElseThrow(() -> new RuntimeException("Availability rule not found"));
+
+        if (start == null || !start.isAfter(LocalDateTime.now()) || !SlotGenerator.isRuleOccurrence(rule, start)) {
+            throw new RuntimeException("Requested time is not an occurrence of this rule");
+        }
+
+        Long teacherId = rule.getTeacher().getId();
+        return slotRepository.findFirstByTeacherIdAndStartDateTime(teacherId, start)
+                .map(Slot::getId)
+                .orElseGet(() -> slotService.createSlots(teacherId, new TreeSet<>(List.of(start)), ruleId)
+                        .get(0).getId());
+    }
+
+    /**
+     * Extends every rule's slots up to the rolling horizon. Each rule is materialized in its
+     * own transaction, so one failing rule does not hold back the others.
+     */
+    @Scheduled(cron = "${app.availability.rule-materialization-cron:0 15 2 * * *}")
+    public void materializeHorizon() {
+        LocalDate horizon = horizonEnd();
+        List<Long> ruleIds = ruleRepository.findIdsNeedingMaterialization(LocalDate.now(), horizon);
+
+        for (Long ruleId : ruleIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> ruleRepository.findByIdForUpdate(ruleId)
+                        .ifPresent(rule -> materialize(rule, horizon)));
+            } catch (Exception e) {
+                log.error("Error materializing availability rule {}: {}", ruleId, e.getMessage());
+            }
+        }
+
+        log.info("Materialized {} availability rules up to {}", ruleIds.size(), horizon);
+    }
+
+    private void materialize(AvailabilityRule rule, LocalDate until) {
+        LocalDate from = rule.getMaterializedUntil().isBefore(LocalDate.now())
+                ? LocalDate.now()
+                : rule.getMaterializedUntil();
+        if (!from.isBefore(until)) {
+            return;
+        }
+
+        slotService.createSlots(rule.getTeacher().getId(),
+                SlotGenerator.generateSlotStartsFromRule(rule, from, until), rule.getId());
+        rule.setMaterializedUntil(until);
+        ruleRepository.save(rule);
+    }
+
+    private LocalDate horizonEnd() {
+        return LocalDate.now().plusDays(horizonDays);
+    }
+
+    private void validateRequest(AvailabilityRuleRequest request) {
+        if (request == null || request.getDayOfWeek() == null
+                || request.getStartTime() == null || request.getEndTime() == null
+                || request.getValidFrom() == null || request.getValidUntil() == null) {
+            throw new RuntimeException("dayOfWeek, startTime, endTime, validFrom and validUntil are required");
+        }
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (request.getStartTime().getMinute() != request.getEndTime().getMinute()) {
+            throw new RuntimeException("Start and end times must have the same minutes and seconds");
+        }
+        if (request.getValidUntil().isBefore(request.getValidFrom())) {
+            throw new RuntimeException("validFrom must not be after validUntil");
+        }
+        if (ChronoUnit.DAYS.between(request.getValidFrom(), request.getValidUntil()) > MAX_RULE_DAYS) {
+            throw new RuntimeException("A rule may not span more than " + MAX_RULE_DAYS + " days");
+        }
+    }
+
+    private AvailabilityRuleDTO convertToDTO(AvailabilityRule rule, Long teacherId) {
+        return AvailabilityRuleDTO.builder()
+                .id(rule.getId())
+                .teacherId(teacherId)
+                .dayOfWeek(rule.getDayOfWeek())
+                .startTime(rule.getStartTime())
+                .endTime(rule.getEndTime())
+                .validFrom(rule.getValidFrom())
+                .validUntil(rule.getValidUntil())
+                .exceptions(new HashSet<>(rule.getExceptions()))
+                .materializedUntil(rule.getMaterializedUntil())
+                .build();
+    }
+
+    private SlotDTO convertSlot(Slot slot) {
+        return SlotDTO.builder()
+                .id(slot.getId())
+                .startDateTime(slot.getStartDateTime())
+                .endDateTime(slot.getEndDateTime())
+                .available(slot.getAvailable())
+                .createdAt(slot.getCreatedAt())
+                .build();
+    }
+}
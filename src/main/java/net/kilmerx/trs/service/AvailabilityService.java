@@ -0,0 +1,148 @@
+package net.kilmerx.trs.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.dto.TeacherAvailabilityDTO;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.util.SlotIntervalIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Answers cross-teacher availability searches from an in-memory interval index of free slots.
+ * The index is loaded at startup, kept current from {@link SlotChangedEvent}s and rebuilt
+ * periodically.
+ * <p>
+ * The index is per node: events only reach the node whose transaction published them, so
+ * changes made through other nodes show up with the next rebuild, up to
+ * {@code app.availability.rebuild-interval-ms} later. Events that arrive while a rebuild is
+ * reading the database are applied to the current index and replayed onto the rebuilt one
+ * before it replaces it, since the rebuild's query may have run before they committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityService {
+
+    public static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private final SlotRepository slotRepository;
+    private final SkillRepository skillRepository;
+
+    private final Object eventLock = new Object();
+
+    private volatile SlotIntervalIndex index = new SlotIntervalIndex();
+
+    /** Events seen since the running rebuild started, or null when none is running; guarded by eventLock */
+    private List<SlotChangedEvent> eventsDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuildIndex();
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.availability.rebuild-interval-ms:300000}")
+    public synchronized void rebuildIndex() {
+        synchronized (eventLock) {
+            eventsDuringRebuild = new ArrayList<>();
+        }
+        SlotIntervalIndex rebuilt = new SlotIntervalIndex();
+        try {
+            slotRepository.findAvailableWindowsEndingAfter(LocalDateTime.now())
+                    .forEach(window -> rebuilt.put(new SlotIntervalIndex.Entry(window.getId(), window.getTeacherId(),
+                            window.getStartDateTime(), window.getEndDateTime())));
+        } catch (RuntimeException e) {
+            synchronized (eventLock) {
+                eventsDuringRebuild = null;
+            }
+            throw e;
+        }
+        int replayed;
+        synchronized (eventLock) {
+            replayed = eventsDuringRebuild.size();
+            eventsDuringRebuild.forEach(event -> apply(rebuilt, event));
+            eventsDuringRebuild = null;
+            index = rebuilt;
+        }
+        log.info("Availability index rebuilt with {} free slots ({} changes replayed)", rebuilt.size(), replayed);
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.prune-interval-ms:600000}")
+    public void pruneEndedSlots() {
+        int removed = index.removeEndedBefore(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("Pruned {} ended slots from the availability index", removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        synchronized (eventLock) {
+            apply(index, event);
+            if (eventsDuringRebuild != null) {
+                eventsDuringRebuild.add(event);
+            }
+        }
+    }
+
+    private static void apply(SlotIntervalIndex target, SlotChangedEvent event) {
+        for (SlotDTO slot : event.getSlots()) {
+            switch (event.getType()) {
+                case CREATED, RELEASED -> target.put(new SlotIntervalIndex.Entry(slot.getId(), event.getTeacherId(),
+                        slot.getStartDateTime(), slot.getEndDateTime()));
+                case DELETED, RESERVED -> target.remove(slot.getId());
+            }
+        }
+    }
+
+    /**
+     * Finds teachers with at least one free slot overlapping [from, to), optionally limited
+     * to teachers offering the given skill. Teachers and their slots come back in id and start order.
+     */
+    public List<TeacherAvailabilityDTO> findAvailableTeachers(LocalDateTime from, LocalDateTime to, String skill) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new IllegalArgumentException("Search window must not exceed " + MAX_WINDOW.toDays() + " days");
+        }
+
+        Set<Long> skilledTeachers = skill == null || skill.isBlank()
+                ? null
+                : new HashSet<>(skillRepository.findTeacherIdsBySkillName(skill.trim()));
+
+        Map<Long, List<SlotDTO>> slotsByTeacher = index.findOverlapping(from, to).stream()
+                .filter(entry -> skilledTeachers == null || skilledTeachers.contains(entry.teacherId()))
+                .collect(Collectors.groupingBy(SlotIntervalIndex.Entry::teacherId, TreeMap::new,
+                        Collectors.mapping(entry -> SlotDTO.builder()
+                                .id(entry.slotId())
+                                .startDateTime(entry.start())
+                                .endDateTime(entry.end())
+                                .available(true)
+                                .build(), Collectors.toList())));
+
+        return slotsByTeacher.entrySet().stream()
+                .map(e -> TeacherAvailabilityDTO.builder()
+                        .teacherId(e.getKey())
+                        .slots(e.getValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
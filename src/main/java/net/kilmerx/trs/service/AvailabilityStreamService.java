@@ -0,0 +1,220 @@
+package net.kilmerx.trs.service;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.SlotAvailabilityDelta;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes slot availability deltas to Server-Sent Events subscribers, per teacher.
+ * <p>
+ * Idle connections hold no thread (the servlet request is async). Each subscriber has its own
+ * queue that is drained by a short-lived virtual thread, so publishing never blocks on a client,
+ * messages to one client stay in order, and a client that falls too far behind is disconnected
+ * and resyncs on reconnect. Event ids are the teacher version prefixed with a per-process
+ * epoch, since versions are counters local to this process: a reconnect whose Last-Event-ID is
+ * not the current id (changes missed, a restart, or another node) gets a {@code resync} event
+ * telling it to refetch the teacher.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityStreamService {
+
+    public static final String EVENT_SLOTS = "slots";
+    public static final String EVENT_RESYNC = "resync";
+
+    private final TeacherCatalogService teacherCatalogService;
+    private final JsonMapper jsonMapper;
+    private final TrsMetrics metrics;
+
+    @Value("${app.availability.stream.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${app.availability.stream.max-pending:256}")
+    private int maxPending;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("trs.availability.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .register(metrics.getRegistry());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream for the teacher. Throws when the teacher does not exist.
+     *
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, or null
+     */
+    public SseEmitter subscribe(Long teacherId, String lastEventId) {
+        teacherCatalogService.getTeacher(teacherId);
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(teacherId, emitter);
+        subscribers.computeIfAbsent(teacherId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        long version = teacherCatalogService.getTeacherVersion(teacherId);
+        if (lastEventId != null && !lastEventId.equals(eventId(version))) {
+            subscriber.enqueue(SseEmitter.event().name(EVENT_RESYNC).id(eventId(version)).data(version));
+        } else {
+            // Flushes the response headers so the client knows the stream is open
+            subscriber.enqueue(SseEmitter.event().comment("subscribed"));
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.getTeacherId());
+        if (targets == null || targets.isEmpty() || event.getSlots().isEmpty()) {
+            return;
+        }
+
+        long version = teacherCatalogService.getTeacherVersion(event.getTeacherId());
+        boolean available = event.getType() == SlotChangedEvent.ChangeType.CREATED
+                || event.getType() == SlotChangedEvent.ChangeType.RELEASED;
+        List<SlotAvailabilityDelta> deltas = event.getSlots().stream()
+                .map(slot -> SlotAvailabilityDelta.builder()
+                        .slotId(slot.getId())
+                        .available(available)
+                        .version(version)
+                        .build())
+                .collect(Collectors.toList());
+
+        // Serialize once for every subscriber
+        String payload = jsonMapper.writeValueAsString(deltas);
+        for (Subscriber subscriber : targets) {
+            subscriber.enqueue(SseEmitter.event()
+                    .name(EVENT_SLOTS)
+                    .id(eventId(version))
+                    .data(payload));
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${app.availability.stream.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber ->
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    private String eventId(long version) {
+        return epoch + "-" + version;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.teacherId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long teacherId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long teacherId, SseEmitter emitter) {
+            this.teacherId = teacherId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                log.debug("Dropping slow availability subscriber for teacher {}", teacherId);
+                unsubscribe(this);
+                // complete() waits for the write lock, which the stuck send still holds
+                try {
+                    senders.execute(emitter::complete);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the container closes the connection
+                }
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been enqueued after the last poll but before draining was reset
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
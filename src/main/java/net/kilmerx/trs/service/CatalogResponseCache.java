@@ -0,0 +1,88 @@
+package net.kilmerx.trs.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Rendered JSON of the public catalog endpoints, written to the response as-is.
+ * <p>
+ * Entries are keyed by the teacher or list version from {@link TeacherCatalogService}, so a
+ * write on this node makes the old entry unreachable instead of having to find and evict it.
+ * Writes on other nodes and slots that have ended only show up once an entry expires and is
+ * rendered again, so ETags are a hash of the rendered bytes, computed once per entry: a 304 is
+ * only ever sent for exactly the body the client already has, and ETags agree across nodes.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogResponseCache {
+
+    private final TeacherCatalogService teacherCatalogService;
+    private final JsonMapper jsonMapper;
+    private final TrsMetrics metrics;
+
+    @Value("${app.catalog.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.catalog.cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private Cache<String, CachedJson> responses;
+
+    public record CachedJson(byte[] body, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedJson>weigher((key, value) -> value.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), responses, "trs.catalog.responses");
+    }
+
+    public CachedJson getTeacher(Long teacherId) {
+        // Read the version before rendering: if a write lands in between, the entry is labelled
+        // with the older version and simply rendered again on the next request
+        long version = teacherCatalogService.getTeacherVersion(teacherId);
+        return responses.get("teacher:" + teacherId + ":" + version, key ->
+                render(teacherCatalogService.getTeacher(teacherId)));
+    }
+
+    /**
+     * Pages are keyed by the list version, which any teacher change or new teacher moves.
+     */
+    public CachedJson getTeachers(String cursor, int size) {
+        long version = teacherCatalogService.getListVersion();
+        String normalizedCursor = cursor == null ? "" : cursor;
+        return responses.get("teachers:" + version + ":" + size + ":" + normalizedCursor, key ->
+                render(teacherCatalogService.getTeachers(cursor, size)));
+    }
+
+    private CachedJson render(Object value) {
+        byte[] body = jsonMapper.writeValueAsBytes(value);
+        return new CachedJson(body, etagOf(body));
+    }
+
+    static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
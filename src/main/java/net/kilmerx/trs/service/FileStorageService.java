@@ -1,15 +1,18 @@
 package net.kilmerx.trs.service;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.UUID;
 
 @Service
@@ -20,10 +23,8 @@ public class FileStorageService {
     private String uploadDir;
 
     public String storeFile(MultipartFile file) throws IOException {
-        File uploadFolder = new File(uploadDir);
-        if (!uploadFolder.exists()) {
-            uploadFolder.mkdirs();
-        }
+        Path uploadFolder = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(uploadFolder);
 
         String originalName = file.getOriginalFilename();
         String extension = "";
@@ -34,26 +35,33 @@ public class FileStorageService {
             }
         }
         String fileName = UUID.randomUUID() + extension;
-        Path filePath = Paths.get(uploadDir, fileName);
+        Path filePath = uploadFolder.resolve(fileName);
 
-        Files.write(filePath, file.getBytes());
+        // The container spools multipart parts to disk, so this is a move of the
+        // spooled file rather than a copy through the heap
+        file.transferTo(filePath.toFile());
         log.info("File stored successfully: {}", fileName);
 
         return fileName;
     }
 
-    public byte[] retrieveFile(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir, fileName);
+    /**
+     * Resolves a stored file for streaming. The content is never read here;
+     * the returned resource is streamed to the client by the caller.
+     */
+    public StoredFile loadFile(String fileName) throws IOException {
+        Path filePath = resolve(fileName);
 
-        if (!Files.exists(filePath)) {
+        if (!Files.isRegularFile(filePath)) {
             throw new IOException("File not found: " + fileName);
         }
 
-        return Files.readAllBytes(filePath);
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        return new StoredFile(filePath, attributes.size(), attributes.lastModifiedTime().toMillis());
     }
 
     public void deleteFile(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir, fileName);
+        Path filePath = resolve(fileName);
 
         if (Files.exists(filePath)) {
             Files.delete(filePath);
@@ -66,4 +74,33 @@ public class FileStorageService {
     public String getFileUrl(String fileName) {
         return "/api/public/files/download/" + fileName;
     }
+
+    private Path resolve(String fileName) throws IOException {
+        Path uploadFolder = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path filePath = uploadFolder.resolve(fileName).normalize();
+        if (!uploadFolder.equals(filePath.getParent())) {
+            throw new IOException("Invalid file name: " + fileName);
+        }
+        return filePath;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredFile {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        public FileSystemResource getResource() {
+            return new FileSystemResource(path);
+        }
+
+        /**
+         * Stored files are written once under a random name and never modified,
+         * so size and modification time identify the content.
+         */
+        public String getETag() {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+    }
 }
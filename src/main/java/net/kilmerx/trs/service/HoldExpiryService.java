@@ -0,0 +1,115 @@
+package net.kilmerx.trs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.event.ReservationHoldEvent;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.util.HashedTimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Expires reservation holds. Each hold placed on this node gets a timer on an in-process
+ * timing wheel, so expiry costs one conditional update per hold rather than a table scan.
+ * Holds placed before a restart are reloaded at startup, and a periodic sweep over the
+ * partial index of held rows catches anything the timers missed (other nodes, failures).
+ * Expiries run on a few threads ({@code app.reservations.hold-expiry.concurrency}), so a burst
+ * of holds expiring in the same tick queues up instead of taking the whole connection pool.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldExpiryService {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final TrsMetrics metrics;
+
+    @Value("${app.reservations.hold-wheel.tick:PT1S}")
+    private Duration tick;
+
+    @Value("${app.reservations.hold-wheel.size:512}")
+    private int wheelSize;
+
+    @Value("${app.reservations.hold-expiry.concurrency:2}")
+    private int concurrency;
+
+    private ExecutorService expirer;
+    private HashedTimingWheel<Long> wheel;
+    private Counter expired;
+
+    @PostConstruct
+    void init() {
+        expirer = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("hold-expiry-", 0).factory());
+        wheel = new HashedTimingWheel<>(tick, wheelSize,
+                reservationId -> expirer.execute(() -> expire(reservationId)), "hold-expiry-wheel");
+        Gauge.builder("trs.reservations.holds.scheduled", wheel, HashedTimingWheel::size)
+                .register(metrics.getRegistry());
+        expired = Counter.builder("trs.reservations.holds.expired").register(metrics.getRegistry());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.close();
+        expirer.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingHolds() {
+        List<ReservationRepository.HoldExpiry> holds = reservationRepository.findHoldExpiries();
+        LocalDateTime now = LocalDateTime.now();
+        holds.forEach(hold -> wheel.schedule(hold.getId(), Duration.between(now, hold.getHoldExpiresAt())));
+        log.info("Scheduled expiry for {} pending holds", holds.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(ReservationHoldEvent event) {
+        switch (event.getType()) {
+            case PLACED -> wheel.schedule(event.getReservationId(),
+                    Duration.between(LocalDateTime.now(), event.getExpiresAt()));
+            case RESOLVED -> wheel.cancel(event.getReservationId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.hold-sweep-interval-ms:60000}")
+    public void sweepExpiredHolds() {
+        List<Long> ids;
+        long expiredInBatch;
+        do {
+            ids = reservationRepository.findExpiredHoldIds(LocalDateTime.now(), Limit.of(SWEEP_BATCH_SIZE));
+            expiredInBatch = ids.stream().filter(this::expire).count();
+            // Stop on a batch that made no progress rather than spinning on failing holds
+        } while (ids.size() == SWEEP_BATCH_SIZE && expiredInBatch > 0);
+    }
+
+    private boolean expire(Long reservationId) {
+        try {
+            if (reservationService.expireHold(reservationId)) {
+                expired.increment();
+                return true;
+            }
+        } catch (Exception e) {
+            // The next sweep retries it
+            log.error("Error expiring hold {}: {}", reservationId, e.getMessage());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,230 @@
+package net.kilmerx.trs.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.model.IdempotencyRecord;
+import net.kilmerx.trs.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Honors the Idempotency-Key header on POSTs that clients retry.
+ * <p>
+ * The first request with a key claims it in {@code idempotency_keys} before running; its
+ * response is stored when it finishes and replayed for every retry with the same key, without
+ * running the request again. Recent responses are also kept in memory so most retries do not
+ * reach the database. A retry while the first request is still running gets 409, and a key
+ * reused for a different request gets 422.
+ * <p>
+ * Only outcomes that a retry would reproduce are stored: 2xx, 409 and 422. Everything else
+ * (400s that may hide a database timeout, 429, server errors) releases the key so that the
+ * retry runs again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.idempotency.retention:PT24H}")
+    private Duration retention;
+
+    @Value("${app.idempotency.lock-timeout:PT1M}")
+    private Duration lockTimeout;
+
+    @Value("${app.idempotency.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private TransactionTemplate newTransaction;
+    private Cache<String, StoredResponse> recent;
+
+    private record StoredResponse(String fingerprint, int status, String body) {
+    }
+
+    private record Claim(Long recordId, StoredResponse completed, boolean busy, boolean mismatch) {
+    }
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        recent = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Runs the action once per (scope, key) and returns its response, or the stored response
+     * of an earlier run. Without a key the action simply runs.
+     *
+     * @param scope       endpoint and caller the key is valid for
+     * @param fingerprint hash of the request, see {@link #fingerprint(Object...)}
+     * @param bodyType    type of the response body, to rebuild replayed responses
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, String fingerprint, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        String cacheKey = scope + "\n" + key;
+        StoredResponse cached = recent.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, fingerprint, bodyType);
+        }
+
+        Claim claim = claim(scope, key, fingerprint);
+        if (claim.mismatch()) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+        }
+        if (claim.completed() != null) {
+            recent.put(cacheKey, claim.completed());
+            return replay(claim.completed(), fingerprint, bodyType);
+        }
+        if (claim.busy()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(claim.recordId());
+            throw e;
+        }
+
+        if (!isDeterministic(response.getStatusCode())) {
+            release(claim.recordId());
+            return response;
+        }
+
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                response.getBody() == null ? null : jsonMapper.writeValueAsString(response.getBody()));
+        newTransaction.executeWithoutResult(status ->
+                recordRepository.complete(claim.recordId(), stored.status(), stored.body()));
+        recent.put(cacheKey, stored);
+        return response;
+    }
+
+    /**
+     * SHA-256 over the given request parts, to tell a retry from a different request.
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.idempotency.purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        Integer purged = newTransaction.execute(status ->
+                recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} idempotency keys", purged);
+        }
+    }
+
+    private Claim claim(String scope, String key, String fingerprint) {
+        try {
+            IdempotencyRecord created = newTransaction.execute(status -> recordRepository.saveAndFlush(
+                    IdempotencyRecord.builder()
+                            .scope(scope)
+                            .idempotencyKey(key)
+                            .fingerprint(fingerprint)
+                            .status(IdempotencyRecord.Status.IN_PROGRESS)
+                            .lockedAt(LocalDateTime.now())
+                            .build()));
+            return new Claim(Objects.requireNonNull(created).getId(), null, false, false);
+        } catch (DataIntegrityViolationException e) {
+            // Someone used the key first
+            return newTransaction.execute(status -> existingClaim(scope, key, fingerprint));
+        }
+    }
+
+    private Claim existingClaim(String scope, String key, String fingerprint) {
+        Optional<IdempotencyRecord> found = recordRepository.findByScopeAndIdempotencyKey(scope, key);
+        if (found.isEmpty()) {
+            // Released between our insert and this read; the client can retry
+            return new Claim(null, null, true, false);
+        }
+        IdempotencyRecord record = found.get();
+        if (!record.getFingerprint().equals(fingerprint)) {
+            return new Claim(null, null, false, true);
+        }
+        if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            return new Claim(null, new StoredResponse(record.getFingerprint(), record.getResponseStatus(),
+                    record.getResponseBody()), false, false);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (recordRepository.takeOver(record.getId(), now.minus(lockTimeout), now) == 1) {
+            log.info("Took over stale idempotency key {} in {}", key, scope);
+            return new Claim(record.getId(), null, false, false);
+        }
+        return new Claim(null, null, true, false);
+    }
+
+    private static boolean isDeterministic(HttpStatusCode status) {
+        return status.is2xxSuccessful()
+                || status.isSameCodeAs(HttpStatus.CONFLICT)
+                || status.isSameCodeAs(HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    private void release(Long recordId) {
+        try {
+            newTransaction.executeWithoutResult(status -> recordRepository.deleteById(recordId));
+        } catch (Exception e) {
+            // The lock timeout lets a retry take the key over
+            log.error("Error releasing idempotency key {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> bodyType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+        }
+        T body = stored.body() == null ? null : jsonMapper.readValue(stored.body(), bodyType);
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(body);
+    }
+}
@@ -0,0 +1,84 @@
+package net.kilmerx.trs.service;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import net.kilmerx.trs.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves ACTIVE reservations whose slot has ended to COMPLETED, so that the live reservation
+ * indexes only cover upcoming bookings.
+ * <p>
+ * Runs on one node at a time (see {@link SchedulerLockService}). Reservations are walked in
+ * id order and each chunk is completed in its own short transaction; a run stops after half the
+ * lease so it never outlives it, and the next run picks up the rest.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationCompletionService {
+
+    static final String LOCK_NAME = "reservation-completion";
+
+    private final ReservationRepository reservationRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final TrsMetrics metrics;
+
+    @Value("${app.reservations.completion.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.reservations.completion.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor;
+
+    private Counter completed;
+
+    @PostConstruct
+    void init() {
+        completed = Counter.builder("trs.reservations.completed").register(metrics.getRegistry());
+    }
+
+    @Scheduled(cron = "${app.reservations.completion.cron:0 */5 * * * *}")
+    public void completePastReservations() {
+        schedulerLockService.runExclusively(LOCK_NAME, lockAtMostFor, this::completeInChunks);
+    }
+
+    private void completeInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        long deadline = System.nanoTime() + lockAtMostFor.toNanos() / 2;
+        long afterId = 0;
+        int total = 0;
+        List<Long> ids;
+        do {
+            long from = afterId;
+            ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = reservationRepository.findEndedActiveIds(now, from, Limit.of(batchSize));
+                if (!chunk.isEmpty()) {
+                    int updated = reservationRepository.completeActive(chunk, now);
+                    completed.increment(updated);
+                }
+                return chunk;
+            });
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize && System.nanoTime() < deadline);
+
+        if (total > 0) {
+            log.info("Completed {} past reservations", total);
+        }
+    }
+}
@@ -2,61 +2,268 @@ package net.kilmerx.trs.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.BatchReservationRequest;
+import net.kilmerx.trs.dto.BatchReservationResponse;
+import net.kilmerx.trs.dto.ReservationDTO;
+import net.kilmerx.trs.dto.ReservationPageDTO;
+import net.kilmerx.trs.dto.ReservationSummaryDTO;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.event.ReservationHoldEvent;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.exception.SlotConflictException;
+import net.kilmerx.trs.metrics.TrsMetrics;
 import net.kilmerx.trs.model.Reservation;
 import net.kilmerx.trs.model.Slot;
-import net.kilmerx.trs.model.Student;
 import net.kilmerx.trs.repository.ReservationRepository;
 import net.kilmerx.trs.repository.SlotRepository;
 import net.kilmerx.trs.repository.StudentRepository;
+import net.kilmerx.trs.util.ConstraintViolations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReservationService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private static final String LIVE_SLOT_INDEX = "ux_reservations_live_slot";
+
     private final ReservationRepository reservationRepository;
     private final StudentRepository studentRepository;
     private final SlotRepository slotRepository;
-    private final SlotService slotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrsMetrics metrics;
+
+    @Value("${app.reservations.hold-ttl:PT10M}")
+    private Duration holdTtl;
+
+    /**
+     * Claims the slot with a single conditional update and records the reservation.
+     * Concurrent callers race on the update; the losers get a {@link SlotConflictException}
+     * without ever reading the slot row.
+     */
+    @Transactional
+    public ReservationDTO reserveSlot(Long studentId, Long slotId) {
+        return metrics.record("trs.reservations.reserve",
+                () -> claimAndReserve(studentId, slotId, Reservation.ReservationStatus.ACTIVE));
+    }
 
+    /**
+     * Claims the slot like {@link #reserveSlot} but only for the hold TTL. The student has to
+     * confirm the hold before it expires, otherwise the slot is released again.
+     */
     @Transactional
-    public Reservation reserveSlot(Long studentId, Long slotId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
+    public ReservationDTO holdSlot(Long studentId, Long slotId) {
+        return metrics.record("trs.reservations.hold",
+                () -> claimAndReserve(studentId, slotId, Reservation.ReservationStatus.HELD));
+    }
 
-        Slot slot = slotRepository.findById(slotId)
-                .orElseThrow(() -> new RuntimeException("Slot not found"));
+    /**
+     * Reserves several slots in one transaction. The slots are locked in id order, classified,
+     * and the free ones are claimed with a single set-based update and inserted as one batch.
+     * In ALL_OR_NOTHING mode nothing is written unless every slot is free.
+     */
+    @Transactional
+    public BatchReservationResponse reserveSlots(Long studentId, List<Long> slotIds, BatchReservationRequest.Mode mode) {
+        return metrics.record("trs.reservations.reserve_batch", () -> claimAndReserveAll(studentId, slotIds,
+                mode == null ? BatchReservationRequest.Mode.ALL_OR_NOTHING : mode));
+    }
+
+    @Transactional
+    public ReservationDTO confirmHold(Long reservationId, Long studentId) {
+        return metrics.record("trs.reservations.confirm", () -> confirm(reservationId, studentId));
+    }
 
-        if (!slot.getAvailable()) {
-            throw new RuntimeException("Slot is not available");
+    /**
+     * Cancels the hold and releases its slot in one transaction if the hold has lapsed.
+     * Safe to call more than once and from several nodes: only the first call does anything.
+     *
+     * @return whether this call expired the hold
+     */
+    @Transactional
+    public boolean expireHold(Long reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.expireHold(reservationId, now) == 0) {
+            return false;
         }
 
-        // Check if student already reserved this slot
-        reservationRepository.findByStudentAndSlotId(student, slotId)
-                .ifPresent(r -> {
-                    throw new RuntimeException("Student already has a reservation for this slot");
-                });
+        Long slotId = reservationRepository.findSlotIdById(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+        slotRepository.releaseSlot(slotId, now);
+
+        log.info("Hold {} expired, slot {} released", reservationId, slotId);
+        slotRepository.findWindowById(slotId)
+                .ifPresent(window -> publishSlotChange(window, SlotChangedEvent.ChangeType.RELEASED));
+        return true;
+    }
+
+    @Transactional
+    public void cancelReservation(Long reservationId, Long studentId) {
+        metrics.record("trs.reservations.cancel", () -> cancelAndRelease(reservationId, studentId));
+    }
+
+    private ReservationDTO claimAndReserve(Long studentId, Long slotId, Reservation.ReservationStatus status) {
+        if (slotRepository.claimSlot(slotId, LocalDateTime.now()) == 0) {
+            if (!slotRepository.existsById(slotId)) {
+                throw new RuntimeException("Slot not found");
+            }
+            throw new SlotConflictException("Slot is not available");
+        }
+        SlotRepository.SlotWindow window = slotRepository.findWindowById(slotId)
+                .orElseThrow(() -> new RuntimeException("Slot not found"));
 
         Reservation reservation = Reservation.builder()
-                .student(student)
-                .slot(slot)
-                .status(Reservation.ReservationStatus.ACTIVE)
+                .student(studentRepository.getReferenceById(studentId))
+                .slot(slotRepository.getReferenceById(slotId))
+                .status(status)
+                .holdExpiresAt(status == Reservation.ReservationStatus.HELD ? LocalDateTime.now().plus(holdTtl) : null)
                 .build();
 
-        reservation = reservationRepository.save(reservation);
-        slotService.markSlotUnavailable(slotId);
+        try {
+            reservation = reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (!isLiveSlotViolation(e)) {
+                throw e;
+            }
+            throw new SlotConflictException("Slot is already reserved");
+        }
 
-        log.info("Reservation created - Student: {}, Slot: {}", studentId, slotId);
+        log.info("Reservation created - Student: {}, Slot: {}, Status: {}", studentId, slotId, status);
+        publishSlotChange(window, SlotChangedEvent.ChangeType.RESERVED);
+        if (status == Reservation.ReservationStatus.HELD) {
+            eventPublisher.publishEvent(new ReservationHoldEvent(reservation.getId(),
+                    ReservationHoldEvent.Type.PLACED, reservation.getHoldExpiresAt()));
+        }
 
-        return reservation;
+        return convertToDTO(reservation);
     }
 
-    @Transactional
-    public void cancelReservation(Long reservationId, Long studentId) {
+    private BatchReservationResponse claimAndReserveAll(Long studentId, List<Long> slotIds,
+                                                        BatchReservationRequest.Mode mode) {
+        if (slotIds == null || slotIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one slot is required");
+        }
+        if (slotIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Slot ids must not be null");
+        }
+        Set<Long> ids = new TreeSet<>(slotIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " slots can be reserved at once");
+        }
+
+        Map<Long, Slot> slots = slotRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Slot::getId, Function.identity()));
+        List<Slot> free = slots.values().stream()
+                .filter(Slot::getAvailable)
+                .sorted(Comparator.comparing(Slot::getId))
+                .toList();
+        boolean claim = mode == BatchReservationRequest.Mode.BEST_EFFORT || free.size() == ids.size();
+
+        Map<Long, Reservation> reserved = new HashMap<>();
+        if (claim && !free.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> freeIds = free.stream().map(Slot::getId).toList();
+            // The rows are locked, so every free slot is claimed; anything else is a bug
+            if (slotRepository.claimSlots(freeIds, now) != freeIds.size()) {
+                throw new SlotConflictException("Slots changed while locked");
+            }
+
+            List<Reservation> reservations = free.stream()
+                    .map(slot -> Reservation.builder()
+                            .student(studentRepository.getReferenceById(studentId))
+                            .slot(slot)
+                            .status(Reservation.ReservationStatus.ACTIVE)
+                            .build())
+                    .toList();
+            try {
+                reservationRepository.saveAllAndFlush(reservations)
+                        .forEach(reservation -> reserved.put(reservation.getSlot().getId(), reservation));
+            } catch (DataIntegrityViolationException e) {
+                if (!isLiveSlotViolation(e)) {
+                    throw e;
+                }
+                throw new SlotConflictException("Slot is already reserved");
+            }
+
+            log.info("Batch reservation created - Student: {}, Slots: {}", studentId, freeIds);
+            free.stream()
+                    .collect(Collectors.groupingBy(slot -> slot.getTeacher().getId()))
+                    .forEach((teacherId, teacherSlots) -> eventPublisher.publishEvent(new SlotChangedEvent(
+                            teacherId, SlotChangedEvent.ChangeType.RESERVED,
+                            teacherSlots.stream().map(slot -> SlotDTO.builder()
+                                    .id(slot.getId())
+                                    .startDateTime(slot.getStartDateTime())
+                                    .endDateTime(slot.getEndDateTime())
+                                    .available(false)
+                                    .build()).toList())));
+        }
+
+        List<BatchReservationResponse.SlotOutcome> outcomes = ids.stream()
+                .map(slotId -> {
+                    Slot slot = slots.get(slotId);
+                    Reservation reservation = reserved.get(slotId);
+                    BatchReservationResponse.Outcome outcome = slot == null ? BatchReservationResponse.Outcome.NOT_FOUND
+                            : !slot.getAvailable() ? BatchReservationResponse.Outcome.UNAVAILABLE
+                            : reservation != null ? BatchReservationResponse.Outcome.RESERVED
+                            : BatchReservationResponse.Outcome.SKIPPED;
+                    return BatchReservationResponse.SlotOutcome.builder()
+                            .slotId(slotId)
+                            .outcome(outcome)
+                            .reservationId(reservation == null ? null : reservation.getId())
+                            .build();
+                })
+                .toList();
+
+        return BatchReservationResponse.builder()
+                .mode(mode)
+                .reserved(reserved.size())
+                .outcomes(outcomes)
+                .build();
+    }
+
+    private ReservationDTO confirm(Long reservationId, Long studentId) {
+        if (reservationRepository.confirmHold(reservationId, studentId, LocalDateTime.now()) == 0) {
+            Reservation reservation = reservationRepository.findById(reservationId)
+                    .orElseThrow(() -> new RuntimeException("Reservation not found"));
+            if (!reservation.getStudent().getId().equals(studentId)) {
+                throw new RuntimeException("Reservation does not belong to this student");
+            }
+            if (reservation.getStatus() == Reservation.ReservationStatus.ACTIVE) {
+                // Already confirmed; a retried confirm gets the same answer
+                return convertToDTO(reservation);
+            }
+            throw new SlotConflictException("Hold has expired");
+        }
+
+        log.info("Hold {} confirmed", reservationId);
+        eventPublisher.publishEvent(new ReservationHoldEvent(reservationId, ReservationHoldEvent.Type.RESOLVED, null));
+        return reservationRepository.findById(reservationId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+    }
+
+    private void cancelAndRelease(Long reservationId, Long studentId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
@@ -64,20 +271,90 @@ public class ReservationService {
             throw new RuntimeException("Reservation does not belong to this student");
         }
 
-        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-        reservationRepository.save(reservation);
+        Reservation.ReservationStatus previousStatus = reservation.getStatus();
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.cancelLive(reservationId, now) == 0) {
+            throw new RuntimeException("Reservation is not active");
+        }
 
         // Mark slot as available again
-        Slot slot = reservation.getSlot();
-        slot.setAvailable(true);
-        slotRepository.save(slot);
+        Long slotId = reservation.getSlot().getId();
+        slotRepository.releaseSlot(slotId, now);
 
         log.info("Reservation {} cancelled", reservationId);
+        if (previousStatus == Reservation.ReservationStatus.HELD) {
+            eventPublisher.publishEvent(new ReservationHoldEvent(reservationId, ReservationHoldEvent.Type.RESOLVED, null));
+        }
+        slotRepository.findWindowById(slotId)
+                .ifPresent(window -> publishSlotChange(window, SlotChangedEvent.ChangeType.RELEASED));
     }
 
-    public List<Reservation> getStudentReservations(Long studentId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-        return reservationRepository.findByStudent(student);
+    /**
+     * A page of the student's reservations, latest slot first, read in a single query.
+     *
+     * @param status optional status filter
+     * @param from   optional inclusive lower bound on the slot start
+     * @param to     optional exclusive upper bound on the slot start
+     */
+    @Transactional(readOnly = true)
+    public ReservationPageDTO getStudentReservations(Long studentId, String status, LocalDateTime from,
+                                                     LocalDateTime to, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        Reservation.ReservationStatus parsedStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                parsedStatus = Reservation.ReservationStatus.valueOf(status.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid status: " + status);
+            }
+        }
+
+        Slice<ReservationSummaryDTO> slice = reservationRepository.findStudentReservations(
+                studentId, parsedStatus, from, to, PageRequest.of(page, size));
+
+        return ReservationPageDTO.builder()
+                .reservations(slice.getContent())
+                .page(page)
+                .size(size)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    private void publishSlotChange(SlotRepository.SlotWindow window, SlotChangedEvent.ChangeType type) {
+        SlotDTO slot = SlotDTO.builder()
+                .id(window.getId())
+                .startDateTime(window.getStartDateTime())
+                .endDateTime(window.getEndDateTime())
+                .available(type == SlotChangedEvent.ChangeType.RELEASED)
+                .build();
+        eventPublisher.publishEvent(new SlotChangedEvent(window.getTeacherId(), type, List.of(slot)));
+    }
+
+    /**
+     * True when {@code ux_reservations_live_slot} rejected a second held or active reservation for a
+     * slot. Other integrity failures (a missing student, a broken foreign key) are not slot conflicts
+     * and must not be reported as one.
+     */
+    static boolean isLiveSlotViolation(DataIntegrityViolationException e) {
+        return ConstraintViolations.isViolationOf(e, LIVE_SLOT_INDEX);
+    }
+
+    private ReservationDTO convertToDTO(Reservation reservation) {
+        return ReservationDTO.builder()
+                .id(reservation.getId())
+                .slotId(reservation.getSlot().getId())
+                .status(reservation.getStatus().name())
+                .createdAt(reservation.getCreatedAt())
+                .holdExpiresAt(reservation.getHoldExpiresAt())
+                .build();
     }
 }
@@ -0,0 +1,100 @@
+package net.kilmerx.trs.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.model.SchedulerLock;
+import net.kilmerx.trs.repository.SchedulerLockRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Elects one node to run a scheduled job, using leases in {@code scheduler_locks}.
+ * <p>
+ * A lease is taken with a conditional update and released when the job finishes; if the node
+ * dies, the lease lapses after {@code lockAtMostFor} and the next node to try takes it over.
+ * Node clocks should agree to well within {@code lockAtMostFor}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate newTransaction;
+    private String owner;
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        owner = hostName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Runs the job if this node gets the lease, otherwise does nothing.
+     *
+     * @return whether the job ran here
+     */
+    public boolean runExclusively(String name, Duration lockAtMostFor, Runnable job) {
+        if (!tryLock(name, lockAtMostFor)) {
+            log.debug("Skipping {}, another node holds the lock", name);
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            unlock(name);
+        }
+        return true;
+    }
+
+    private boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lockAtMostFor);
+        Integer acquired = newTransaction.execute(status -> lockRepository.acquire(name, owner, now, until));
+        if (acquired != null && acquired > 0) {
+            return true;
+        }
+        try {
+            // First run anywhere: the lock row does not exist yet
+            newTransaction.executeWithoutResult(status -> lockRepository.saveAndFlush(SchedulerLock.builder()
+                    .name(name)
+                    .lockedUntil(until)
+                    .lockedAt(now)
+                    .lockedBy(owner)
+                    .build()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void unlock(String name) {
+        try {
+            newTransaction.executeWithoutResult(status -> lockRepository.release(name, owner, LocalDateTime.now()));
+        } catch (Exception e) {
+            // The lease lapses on its own
+            log.error("Error releasing scheduler lock {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.kilmerx.trs.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fails startup when an index from the migrations is missing. Hibernate's schema validation
+ * checks tables and columns only; without these indexes the hot queries still work, just slowly,
+ * which is easy to miss after a failed or hand-edited migration.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    static final List<String> REQUIRED_INDEXES = List.of(
+            "ux_reservations_live_slot",
+            "ix_reservations_held_expiry",
+            "ix_reservations_student",
+            "ix_reservations_active_id",
+            "ix_reservations_created_at",
+            "ux_slots_teacher_start",
+            "ix_slots_teacher_available_start",
+            "ix_slots_updated_at_id",
+            "ix_slots_start_date_time",
+            "ix_slots_rule_start",
+            "ix_slot_tombstones_deleted_at_slot_id",
+            "ix_skills_teacher",
+            "ix_teacher_registration_requests_status",
+            "ix_availability_rules_teacher");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema.verify-indexes:true}")
+    private boolean verifyIndexes;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!verifyIndexes) {
+            return;
+        }
+        Set<String> missing = new HashSet<>(REQUIRED_INDEXES);
+        missing.removeAll(jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes " + missing
+                    + "; check the Flyway migration history");
+        }
+        log.info("Verified {} database indexes", REQUIRED_INDEXES.size());
+    }
+}
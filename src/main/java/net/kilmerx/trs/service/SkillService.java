@@ -3,10 +3,11 @@ package net.kilmerx.trs.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.kilmerx.trs.dto.SkillDTO;
+import net.kilmerx.trs.event.SkillChangedEvent;
 import net.kilmerx.trs.model.Skill;
-import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.repository.SkillRepository;
 import net.kilmerx.trs.repository.TeacherRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,21 +21,23 @@ public class SkillService {
 
     private final SkillRepository skillRepository;
     private final TeacherRepository teacherRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public SkillDTO addSkill(Long teacherId, String skillName) {
-        Teacher teacher = teacherRepository.findById(teacherId)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Teacher not found");
+        }
 
         Skill skill = Skill.builder()
                 .skillName(skillName)
-                .teacher(teacher)
+                .teacher(teacherRepository.getReferenceById(teacherId))
                 .build();
 
         skill = skillRepository.save(skill);
-        teacher.getSkills().add(skill);
 
         log.info("Skill '{}' added for teacher: {}", skillName, teacherId);
+        eventPublisher.publishEvent(new SkillChangedEvent(teacherId, SkillChangedEvent.ChangeType.ADDED, skillName));
 
         return SkillDTO.builder()
                 .id(skill.getId())
@@ -60,7 +63,9 @@ public class SkillService {
             throw new RuntimeException("Skill does not belong to this teacher");
         }
 
-        skillRepository.deleteById(skillId);
+        skillRepository.delete(skill);
         log.info("Skill '{}' deleted", skillId);
+        eventPublisher.publishEvent(new SkillChangedEvent(teacherId, SkillChangedEvent.ChangeType.DELETED,
+                skill.getSkillName()));
     }
 }
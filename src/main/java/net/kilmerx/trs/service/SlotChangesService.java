@@ -0,0 +1,161 @@
+package net.kilmerx.trs.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.SlotChangeDTO;
+import net.kilmerx.trs.dto.SlotChangesDTO;
+import net.kilmerx.trs.exception.SyncTokenExpiredException;
+import net.kilmerx.trs.model.SlotTombstone;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.SlotTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Delta sync over slots. Live slots are read by (updatedAt, id) and deletions from
+ * {@link SlotTombstone} by (deletedAt, slotId); both are merged in that order and the sync
+ * token is the position of the last change returned.
+ * <p>
+ * Only writes older than the settle window are returned, so a transaction that stamped its
+ * rows before a client read but committed after it is still picked up by the next call. Rows
+ * are stamped inside their transaction, and every transaction is bounded by
+ * {@code spring.transaction.default-timeout}, so a window of at least that timeout plus the
+ * clock skew between nodes covers any commit delay; startup fails on a shorter window.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotChangesService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final Comparator<SlotChangeDTO> CHANGE_ORDER =
+            Comparator.comparing(SlotChangeDTO::getUpdatedAt).thenComparing(SlotChangeDTO::getSlotId);
+
+    private final SlotRepository slotRepository;
+    private final SlotTombstoneRepository tombstoneRepository;
+
+    @Value("${app.slots.changes.settle-window:PT5S}")
+    private Duration settleWindow;
+
+    @Value("${spring.transaction.default-timeout:#{null}}")
+    private Duration transactionTimeout;
+
+    @Value("${app.slots.changes.clock-skew:PT2S}")
+    private Duration clockSkew;
+
+    @Value("${app.slots.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    @PostConstruct
+    void checkSettleWindow() {
+        if (transactionTimeout == null) {
+            log.warn("spring.transaction.default-timeout is not set; slot changes committed more than {} after "
+                    + "they were stamped can be missed by delta sync", settleWindow);
+        } else if (settleWindow.compareTo(transactionTimeout.plus(clockSkew)) < 0) {
+            throw new IllegalStateException("app.slots.changes.settle-window (" + settleWindow
+                    + ") must cover spring.transaction.default-timeout plus app.slots.changes.clock-skew ("
+                    + transactionTimeout.plus(clockSkew) + ")");
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} changes after the token, oldest first.
+     *
+     * @param since a token from a previous call, or null for a full sync
+     */
+    @Transactional(readOnly = true)
+    public SlotChangesDTO getChanges(String since, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        // Postgres keeps microseconds; compare at the precision that is stored
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Position after = since == null || since.isBlank() ? new Position(BEGINNING, 0L) : decodeToken(since);
+        if (since != null && !since.isBlank() && after.time().isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncTokenExpiredException("Sync token is older than " + tombstoneRetention.toDays()
+                    + " days, resync from scratch");
+        }
+        LocalDateTime until = now.minus(settleWindow);
+
+        List<SlotChangeDTO> changes = new ArrayList<>();
+        slotRepository.findChangedAfter(after.time(), after.id(), until, Limit.of(limit + 1))
+                .forEach(slot -> changes.add(SlotChangeDTO.builder()
+                        .slotId(slot.getId())
+                        .teacherId(slot.getTeacherId())
+                        .startDateTime(slot.getStartDateTime())
+                        .endDateTime(slot.getEndDateTime())
+                        .available(slot.getAvailable())
+                        .updatedAt(slot.getUpdatedAt())
+                        .build()));
+        tombstoneRepository.findDeletedAfter(after.time(), after.id(), until, Limit.of(limit + 1))
+                .forEach(tombstone -> changes.add(SlotChangeDTO.builder()
+                        .slotId(tombstone.getSlotId())
+                        .teacherId(tombstone.getTeacherId())
+                        .available(false)
+                        .deleted(true)
+                        .updatedAt(tombstone.getDeletedAt())
+                        .build()));
+        changes.sort(CHANGE_ORDER);
+
+        boolean hasMore = changes.size() > limit;
+        List<SlotChangeDTO> page = hasMore ? changes.subList(0, limit) : changes;
+        // Everything stamped before the settle bound has been returned, so an empty page can move
+        // the token up to it; idle clients then never fall behind the tombstone retention
+        String nextToken = page.isEmpty()
+                ? encodeToken(new Position(until.isAfter(after.time()) ? until : after.time(), 0L))
+                : encodeToken(new Position(page.get(page.size() - 1).getUpdatedAt(), page.get(page.size() - 1).getSlotId()));
+
+        return SlotChangesDTO.builder()
+                .changes(new ArrayList<>(page))
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Scheduled(cron = "${app.slots.changes.tombstone-purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} slot tombstones", purged);
+        }
+    }
+
+    private record Position(LocalDateTime time, Long id) {
+    }
+
+    private String encodeToken(Position position) {
+        String raw = position.time() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Position decodeToken(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return new Position(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
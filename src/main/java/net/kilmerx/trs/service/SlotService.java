@@ -1,18 +1,32 @@
 package net.kilmerx.trs.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.kilmerx.trs.dto.SlotBatchResponse;
 import net.kilmerx.trs.dto.SlotDTO;
 import net.kilmerx.trs.dto.SlotRangeRequest;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.exception.SlotConflictException;
+import net.kilmerx.trs.metrics.TrsMetrics;
 import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.SlotTombstone;
 import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.SlotTombstoneRepository;
 import net.kilmerx.trs.repository.TeacherRepository;
+import net.kilmerx.trs.util.ConstraintViolations;
 import net.kilmerx.trs.util.SlotGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,47 +34,111 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SlotService {
 
+    private static final String TEACHER_START_INDEX = "ux_slots_teacher_start";
+
     private final SlotRepository slotRepository;
+    private final SlotTombstoneRepository slotTombstoneRepository;
     private final TeacherRepository teacherRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrsMetrics metrics;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     @Transactional
     public List<SlotDTO> addSlotsFromRange(Long teacherId, SlotRangeRequest rangeRequest) {
-        Teacher teacher = teacherRepository.findById(teacherId)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        return metrics.record("trs.slots.add_range", () -> createSlotsFromRange(teacherId, rangeRequest));
+    }
+
+    private List<SlotDTO> createSlotsFromRange(Long teacherId, SlotRangeRequest rangeRequest) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Teacher not found");
+        }
 
+        NavigableSet<LocalDateTime> starts;
         try {
-            List<Slot> slots = SlotGenerator.generateSlotsFromRange(rangeRequest, teacher);
-            slots = slotRepository.saveAll(slots);
-            teacher.getAvailableSlots().addAll(slots);
-            teacherRepository.save(teacher);
+            starts = SlotGenerator.generateSlotStartsFromRanges(List.of(rangeRequest));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid slot range: " + e.getMessage());
+        }
 
-            log.info("Added {} slots for teacher: {}", slots.size(), teacherId);
+        // Hours the teacher already has are skipped, as on the bulk path
+        List<SlotDTO> created = createSlots(teacherId, starts, null);
+        log.info("Added {} slots for teacher: {}", created.size(), teacherId);
+        return created;
+    }
+
+    /**
+     * Bulk path for publishing many ranges at once. Ranges are validated and de-duplicated
+     * up front, hours the teacher already has are skipped, and the remaining slots are
+     * written in JDBC batches using pooled sequence ids.
+     */
+    @Transactional
+    public SlotBatchResponse addSlotsFromRanges(Long teacherId, List<SlotRangeRequest> ranges) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Teacher not found");
+        }
+        if (ranges == null || ranges.isEmpty()) {
+            throw new RuntimeException("At least one slot range is required");
+        }
 
-            return slots.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+        NavigableSet<LocalDateTime> starts;
+        try {
+            starts = SlotGenerator.generateSlotStartsFromRanges(ranges);
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid slot range: " + e.getMessage());
         }
+
+        int requested = starts.size();
+        List<SlotDTO> created = createSlots(teacherId, starts, null);
+
+        log.info("Added {} slots for teacher: {} ({} already existed)",
+                created.size(), teacherId, requested - created.size());
+
+        return SlotBatchResponse.builder()
+                .requested(requested)
+                .created(created.size())
+                .skipped(requested - created.size())
+                .build();
     }
 
-    @Transactional
-    public List<SlotDTO> addSlotsFromRanges(Long teacherId, List<SlotRangeRequest> ranges) {
-        teacherRepository.findById(teacherId)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
-        List<SlotDTO> allSlots = new java.util.ArrayList<>();
-
-        for (SlotRangeRequest range : ranges) {
-            try {
-                allSlots.addAll(addSlotsFromRange(teacherId, range));
-            } catch (Exception e) {
-                log.error("Error adding slots for range: {}", e.getMessage());
-                throw new RuntimeException("Error processing slot ranges: " + e.getMessage());
+    /**
+     * Writes one-hour slots at the given starts, skipping hours the teacher already has,
+     * in JDBC batches. Must run inside the caller's transaction.
+     * <p>
+     * The skip is a read before the insert, so a concurrent writer can still add one of the
+     * hours in between. The unique (teacher, start) index rejects that insert, and the whole
+     * call fails with a {@link SlotConflictException}; a retry then skips the hour.
+     *
+     * @param ruleId the availability rule the slots are materialized from, or null
+     */
+    List<SlotDTO> createSlots(Long teacherId, NavigableSet<LocalDateTime> starts, Long ruleId) {
+        if (starts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // One tree lookup per existing hour; Set.removeAll would scan the list once per start
+        // whenever the teacher already has more hours in the window than were requested
+        slotRepository.findStartDateTimesByTeacherIdBetween(teacherId, starts.first(), starts.last())
+                .forEach(starts::remove);
+
+        Teacher teacher = teacherRepository.getReferenceById(teacherId);
+        List<SlotDTO> created = new ArrayList<>(starts.size());
+        List<Slot> batch = new ArrayList<>(batchSize);
+        for (LocalDateTime start : starts) {
+            Slot slot = SlotGenerator.buildSlot(teacher, start);
+            slot.setRuleId(ruleId);
+            batch.add(slot);
+            if (batch.size() == batchSize) {
+                flushBatch(batch, created);
             }
         }
+        flushBatch(batch, created);
 
-        return allSlots;
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new SlotChangedEvent(teacherId, SlotChangedEvent.ChangeType.CREATED, created));
+        }
+        return created;
     }
 
     public List<SlotDTO> getTeacherSlots(Long teacherId) {
@@ -78,19 +156,35 @@ public class SlotService {
     }
 
     @Transactional
-    public void markSlotUnavailable(Long slotId) {
+    public void deleteSlot(Long slotId) {
         Slot slot = slotRepository.findById(slotId)
                 .orElseThrow(() -> new RuntimeException("Slot not found"));
-        slot.setAvailable(false);
-        slotRepository.save(slot);
+        slotRepository.delete(slot);
+        slotTombstoneRepository.save(SlotTombstone.of(slot));
+        log.info("Slot {} deleted", slotId);
+
+        eventPublisher.publishEvent(new SlotChangedEvent(slot.getTeacher().getId(),
+                SlotChangedEvent.ChangeType.DELETED, List.of(convertToDTO(slot))));
     }
 
-    @Transactional
-    public void deleteSlot(Long slotId) {
-        slotRepository.findById(slotId)
-                .orElseThrow(() -> new RuntimeException("Slot not found"));
-        slotRepository.deleteById(slotId);
-        log.info("Slot {} deleted", slotId);
+    private void flushBatch(List<Slot> batch, List<SlotDTO> created) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        slotRepository.saveAll(batch);
+        // Keep the persistence context from growing with the size of the request. Only the
+        // batch is detached: callers such as rule materialization hold managed entities
+        try {
+            slotRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isViolationOf(e, TEACHER_START_INDEX)) {
+                throw e;
+            }
+            throw new SlotConflictException("Some of these hours were added concurrently; retry the request");
+        }
+        batch.forEach(slot -> created.add(convertToDTO(slot)));
+        batch.forEach(entityManager::detach);
+        batch.clear();
     }
 
     private SlotDTO convertToDTO(Slot slot) {
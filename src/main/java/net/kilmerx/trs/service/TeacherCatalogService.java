@@ -0,0 +1,236 @@
+package net.kilmerx.trs.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.dto.TeacherPageDTO;
+import net.kilmerx.trs.event.SkillChangedEvent;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.event.TeacherCreatedEvent;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.TeacherRepository;
+import net.kilmerx.trs.util.TeacherMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the public teacher catalog.
+ * Teachers are served from a bounded read-through cache keyed by teacher id; a page costs one
+ * index-only id query plus, for the teachers not cached yet, three queries (teachers with users,
+ * skills, upcoming available slots) regardless of its size. Pages are addressed by an opaque keyset cursor.
+ * Entries are evicted for exactly the teacher named by a {@link SlotChangedEvent} or
+ * {@link SkillChangedEvent} once its transaction commits; the TTL bounds anything missed.
+ * <p>
+ * Every such change also bumps the teacher's version and the list version, which
+ * {@link CatalogResponseCache} uses to key rendered responses. Each entry records the teacher
+ * version read before its load started, and an entry whose version is behind is treated as a
+ * miss: a load that read the database before a change committed can finish after the eviction,
+ * and would otherwise be served until the TTL.
+ */
+@Service
+@RequiredArgsConstructor
+public class TeacherCatalogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final TeacherRepository teacherRepository;
+    private final SkillRepository skillRepository;
+    private final SlotRepository slotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TrsMetrics metrics;
+
+    @Value("${app.catalog.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${app.catalog.cache.ttl:PT5M}")
+    private Duration cacheTtl;
+
+    private final Map<Long, Long> teacherVersions = new ConcurrentHashMap<>();
+    private final AtomicLong listVersion = new AtomicLong();
+
+    private TransactionTemplate readOnlyTransaction;
+    private LoadingCache<Long, CachedTeacher> teacherCache;
+
+    private record CachedTeacher(long version, TeacherDTO teacher) {
+    }
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        readOnlyTransaction.setReadOnly(true);
+
+        // get() loads a missing teacher once and makes concurrent callers wait for that load,
+        // so a hot teacher page never stampedes Postgres; getAll() loads a page's misses together
+        teacherCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public CachedTeacher load(Long teacherId) {
+                        return loadTeachers(Set.of(teacherId)).get(teacherId);
+                    }
+
+                    @Override
+                    public Map<Long, CachedTeacher> loadAll(Set<? extends Long> teacherIds) {
+                        return loadTeachers(teacherIds);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), teacherCache, "trs.catalog.teachers");
+    }
+
+    public TeacherPageDTO getTeachers(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra id to know whether another page follows
+        List<Long> ids = teacherRepository.findIdsAfter(decodeCursor(cursor), Limit.of(size + 1));
+        boolean hasMore = ids.size() > size;
+        if (hasMore) {
+            ids = ids.subList(0, size);
+        }
+
+        Map<Long, CachedTeacher> cached = new HashMap<>(teacherCache.getAll(ids));
+        List<Long> stale = cached.entrySet().stream()
+                .filter(entry -> isStale(entry.getKey(), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!stale.isEmpty()) {
+            stale.forEach(id -> teacherCache.asMap().remove(id, cached.get(id)));
+            cached.putAll(teacherCache.getAll(stale));
+        }
+        List<TeacherDTO> dtos = ids.stream()
+                .map(cached::get)
+                .filter(Objects::nonNull)
+                .map(CachedTeacher::teacher)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(ids.get(ids.size() - 1)) : null;
+
+        return TeacherPageDTO.builder()
+                .teachers(dtos)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public TeacherDTO getTeacher(Long teacherId) {
+        CachedTeacher cached = teacherCache.get(teacherId);
+        if (cached != null && isStale(teacherId, cached)) {
+            teacherCache.asMap().remove(teacherId, cached);
+            cached = teacherCache.get(teacherId);
+        }
+        if (cached == null) {
+            throw new RuntimeException("Teacher not found");
+        }
+        return cached.teacher();
+    }
+
+    public long getTeacherVersion(Long teacherId) {
+        return teacherVersions.getOrDefault(teacherId, 0L);
+    }
+
+    public long getListVersion() {
+        return listVersion.get();
+    }
+
+    // Runs before the other slot listeners so they observe the bumped version
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        teacherChanged(event.getTeacherId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSkillChanged(SkillChangedEvent event) {
+        teacherChanged(event.getTeacherId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeacherCreated(TeacherCreatedEvent event) {
+        listVersion.incrementAndGet();
+    }
+
+    private void teacherChanged(Long teacherId) {
+        // Evict before bumping, so a response rendered for the new version never sees the old entry
+        teacherCache.invalidate(teacherId);
+        teacherVersions.merge(teacherId, 1L, Long::sum);
+        listVersion.incrementAndGet();
+    }
+
+    /**
+     * An entry loaded before the teacher's latest change committed may hold the old data.
+     */
+    private boolean isStale(Long teacherId, CachedTeacher cached) {
+        return cached.version() != getTeacherVersion(teacherId);
+    }
+
+    /**
+     * Loads the given teachers in one read-only transaction, labelled with the versions read
+     * before the queries. Ids without a teacher are absent from the result, so they are not cached.
+     */
+    private Map<Long, CachedTeacher> loadTeachers(Set<? extends Long> teacherIds) {
+        if (teacherIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> versions = teacherIds.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getTeacherVersion));
+        return readOnlyTransaction.execute(status -> {
+            List<Long> ids = List.copyOf(teacherIds);
+            List<Teacher> teachers = teacherRepository.findWithUserByIdIn(ids);
+            if (teachers.isEmpty()) {
+                return Collections.<Long, CachedTeacher>emptyMap();
+            }
+            return TeacherMapper.toDTOs(teachers,
+                            skillRepository.findByTeacherIdIn(ids),
+                            slotRepository.findByTeacherIdInAndAvailableTrueAndEndDateTimeAfterOrderByStartDateTime(
+                                    ids, LocalDateTime.now()))
+                    .stream()
+                    .collect(Collectors.toMap(TeacherDTO::getId,
+                            teacher -> new CachedTeacher(versions.get(teacher.getId()), teacher)));
+        });
+    }
+
+    private String encodeCursor(Long lastTeacherId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastTeacherId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
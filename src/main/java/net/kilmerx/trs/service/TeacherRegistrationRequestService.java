@@ -7,12 +7,14 @@ import net.kilmerx.trs.dto.AdminTeacherCreateResponse;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestCreate;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestStatus;
 import net.kilmerx.trs.dto.TeacherRegistrationRequestSummary;
+import net.kilmerx.trs.event.TeacherCreatedEvent;
 import net.kilmerx.trs.model.Teacher;
 import net.kilmerx.trs.model.TeacherRegistrationRequestEntity;
 import net.kilmerx.trs.model.User;
 import net.kilmerx.trs.repository.TeacherRegistrationRequestRepository;
 import net.kilmerx.trs.repository.TeacherRepository;
 import net.kilmerx.trs.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class TeacherRegistrationRequestService {
     private final TeacherRepository teacherRepository;
     private final PasswordEncoder passwordEncoder;
     private final SkillService skillService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public TeacherRegistrationRequestStatus createRequest(TeacherRegistrationRequestCreate request) {
@@ -100,6 +103,7 @@ public class TeacherRegistrationRequestService {
                 .build();
 
         teacher = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new TeacherCreatedEvent(teacher.getId()));
 
         for (String skillName : entity.getSkills()) {
             skillService.addSkill(teacher.getId(), skillName);
@@ -149,6 +153,7 @@ public class TeacherRegistrationRequestService {
                 .build();
 
         teacher = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new TeacherCreatedEvent(teacher.getId()));
 
         log.info("Teacher created by admin: {}", user.getUsername());
 
@@ -163,7 +168,7 @@ public class TeacherRegistrationRequestService {
     public List<TeacherRegistrationRequestSummary> listRequests(String status) {
         List<TeacherRegistrationRequestEntity> entities;
         if (isBlank(status)) {
-            entities = requestRepository.findAll();
+            entities = requestRepository.findAllWithSkills();
         } else {
             TeacherRegistrationRequestEntity.RequestStatus parsedStatus =
                     TeacherRegistrationRequestEntity.RequestStatus.valueOf(status.trim().toUpperCase());
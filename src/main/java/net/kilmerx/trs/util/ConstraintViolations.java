@@ -0,0 +1,24 @@
+package net.kilmerx.trs.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+public class ConstraintViolations {
+
+    /**
+     * Whether the failure, or one of its causes, is a violation of the named constraint or unique
+     * index. Other integrity failures (a broken foreign key, a null column) return false, so
+     * callers can tell an expected conflict from a bug.
+     */
+    public static boolean isViolationOf(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // H2 reports the index name with the table and values appended
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
+    }
+}
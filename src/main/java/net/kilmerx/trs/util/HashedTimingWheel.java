@@ -0,0 +1,152 @@
+package net.kilmerx.trs.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for many short-lived timers with coarse precision.
+ * <p>
+ * Scheduling and cancelling are O(1) and never touch the wheel itself: new timers go through a
+ * queue that the single worker thread moves into buckets on each tick, so buckets are only ever
+ * read and written by the worker. Timers fire up to one tick late, never early. The expiry
+ * callback runs on the worker thread and should hand real work off to another executor.
+ * Scheduling a key that already has a timer replaces it.
+ */
+@Slf4j
+public class HashedTimingWheel<K> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timer<K>>> buckets;
+    private final Queue<Timer<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Map<K, Timer<K>> timers = new ConcurrentHashMap<>();
+    private final Consumer<K> onExpiry;
+    private final Thread worker;
+    private final long startNanos = System.nanoTime();
+
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public HashedTimingWheel(Duration tickDuration, int wheelSize, Consumer<K> onExpiry, String threadName) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.onExpiry = onExpiry;
+        this.worker = Thread.ofPlatform().name(threadName).daemon().unstarted(this::run);
+        this.worker.start();
+    }
+
+    public void schedule(K key, Duration delay) {
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timer<K> timer = new Timer<>(key, deadline);
+        Timer<K> previous = timers.put(key, timer);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timer);
+    }
+
+    public void cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer != null) {
+            timer.cancelled = true;
+        }
+    }
+
+    /**
+     * Number of timers scheduled and not yet fired or cancelled.
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long wakeUp = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = wakeUp - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            transferPending();
+            expireBucket(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timer<K> timer;
+        while ((timer = pending.poll()) != null) {
+            if (timer.cancelled) {
+                continue;
+            }
+            long dueTick = timer.deadline / tickNanos;
+            timer.rounds = Math.max(0, (dueTick - tick) / buckets.size());
+            // Deadlines already in the past go to the current bucket
+            buckets.get((int) (Math.max(dueTick, tick) & mask)).add(timer);
+        }
+    }
+
+    private void expireBucket(List<Timer<K>> bucket) {
+        bucket.removeIf(timer -> {
+            if (timer.cancelled) {
+                return true;
+            }
+            if (timer.rounds > 0) {
+                timer.rounds--;
+                return false;
+            }
+            if (timers.remove(timer.key, timer)) {
+                try {
+                    onExpiry.accept(timer.key);
+                } catch (RuntimeException e) {
+                    log.error("Timer callback failed for {}: {}", timer.key, e.getMessage());
+                }
+            }
+            return true;
+        });
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timer(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
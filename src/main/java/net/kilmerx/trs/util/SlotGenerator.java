@@ -1,51 +1,41 @@
 package net.kilmerx.trs.util;
 
 import net.kilmerx.trs.dto.SlotRangeRequest;
+import net.kilmerx.trs.model.AvailabilityRule;
 import net.kilmerx.trs.model.Slot;
 import net.kilmerx.trs.model.Teacher;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 public class SlotGenerator {
 
+    /**
+     * Upper bound on the number of slots a single request may expand to.
+     */
+    public static final int MAX_SLOTS_PER_REQUEST = 10_000;
+
     /**
      * Generates one-hour slots from a time range.
      * Only allows ranges with no remaining minutes (must start and end on hour
      * boundaries).
      */
     public static List<Slot> generateSlotsFromRange(SlotRangeRequest rangeRequest, Teacher teacher) {
-        LocalDateTime start = rangeRequest.getStartDateTime();
-        LocalDateTime end = rangeRequest.getEndDateTime();
-
-        // Validate that there are no remaining minutes
-        if ( !(start.getMinute() == end.getMinute()) ) {
-            System.out.println(start.getMinute());
-            System.out.println(end.getMinute());
-            throw new IllegalArgumentException("Start and end times must have the same minutes and seconds");
-        }
-
-        if (!start.isBefore(end)) {
-            throw new IllegalArgumentException("Start time must be before end time");
-        }
+        validateRange(rangeRequest);
 
         List<Slot> slots = new ArrayList<>();
-        LocalDateTime currentStart = start;
+        LocalDateTime currentStart = rangeRequest.getStartDateTime();
 
-        while (currentStart.isBefore(end)) {
-            LocalDateTime currentEnd = currentStart.plusHours(1);
-
-
-            Slot slot = Slot.builder()
-                    .teacher(teacher)
-                    .startDateTime(currentStart)
-                    .endDateTime(currentEnd)
-                    .available(true)
-                    .build();
-
-            slots.add(slot);
-            currentStart = currentEnd;
+        while (currentStart.isBefore(rangeRequest.getEndDateTime())) {
+            slots.add(buildSlot(teacher, currentStart));
+            currentStart = currentStart.plusHours(1);
         }
 
         return slots;
@@ -61,4 +51,98 @@ public class SlotGenerator {
         }
         return allSlots;
     }
+
+    /**
+     * Validates every range up front and expands them into the distinct, ordered start
+     * times of their one-hour slots. Overlapping ranges collapse into a single slot per hour.
+     */
+    public static NavigableSet<LocalDateTime> generateSlotStartsFromRanges(List<SlotRangeRequest> ranges) {
+        for (SlotRangeRequest range : ranges) {
+            validateRange(range);
+        }
+
+        NavigableSet<LocalDateTime> starts = new TreeSet<>();
+        for (SlotRangeRequest range : ranges) {
+            LocalDateTime currentStart = range.getStartDateTime();
+            while (currentStart.isBefore(range.getEndDateTime())) {
+                starts.add(currentStart);
+                if (starts.size() > MAX_SLOTS_PER_REQUEST) {
+                    throw new IllegalArgumentException("Ranges expand to more than "
+                            + MAX_SLOTS_PER_REQUEST + " slots");
+                }
+                currentStart = currentStart.plusHours(1);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Expands a recurring rule into the start times of its one-hour slots for the dates in
+     * [from, toExclusive), clipped to the rule's validity and skipping its exception dates.
+     */
+    public static NavigableSet<LocalDateTime> generateSlotStartsFromRule(AvailabilityRule rule,
+            LocalDate from, LocalDate toExclusive) {
+        LocalDate first = from.isBefore(rule.getValidFrom()) ? rule.getValidFrom() : from;
+        LocalDate end = toExclusive.isAfter(rule.getValidUntil()) ? rule.getValidUntil().plusDays(1) : toExclusive;
+
+        NavigableSet<LocalDateTime> starts = new TreeSet<>();
+        for (LocalDate date = first.with(TemporalAdjusters.nextOrSame(rule.getDayOfWeek()));
+                date.isBefore(end); date = date.plusWeeks(1)) {
+            if (rule.getExceptions().contains(date)) {
+                continue;
+            }
+            LocalDateTime currentStart = date.atTime(rule.getStartTime());
+            LocalDateTime windowEnd = date.atTime(rule.getEndTime());
+            while (currentStart.isBefore(windowEnd)) {
+                starts.add(currentStart);
+                currentStart = currentStart.plusHours(1);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Whether the given start time is one of the rule's slot starts.
+     */
+    public static boolean isRuleOccurrence(AvailabilityRule rule, LocalDateTime start) {
+        LocalDate date = start.toLocalDate();
+        LocalTime time = start.toLocalTime();
+        return date.getDayOfWeek() == rule.getDayOfWeek()
+                && !date.isBefore(rule.getValidFrom())
+                && !date.isAfter(rule.getValidUntil())
+                && !rule.getExceptions().contains(date)
+                && !time.isBefore(rule.getStartTime())
+                && !start.plusHours(1).isAfter(date.atTime(rule.getEndTime()))
+                && Duration.between(rule.getStartTime(), time).toMinutes() % 60 == 0
+                && time.getSecond() == rule.getStartTime().getSecond()
+                && time.getNano() == rule.getStartTime().getNano();
+    }
+
+    public static Slot buildSlot(Teacher teacher, LocalDateTime start) {
+        return Slot.builder()
+                .teacher(teacher)
+                .startDateTime(start)
+                .endDateTime(start.plusHours(1))
+                .available(true)
+                .build();
+    }
+
+    private static void validateRange(SlotRangeRequest rangeRequest) {
+        if (rangeRequest == null || rangeRequest.getStartDateTime() == null
+                || rangeRequest.getEndDateTime() == null) {
+            throw new IllegalArgumentException("Start and end times are required");
+        }
+
+        LocalDateTime start = rangeRequest.getStartDateTime();
+        LocalDateTime end = rangeRequest.getEndDateTime();
+
+        // Validate that there are no remaining minutes
+        if (start.getMinute() != end.getMinute()) {
+            throw new IllegalArgumentException("Start and end times must have the same minutes and seconds");
+        }
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package net.kilmerx.trs.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted-segment index of slot intervals, ordered by start time.
+ * An interval [start, end) overlaps a window [from, to) when start &lt; to and end &gt; from; since
+ * no interval is longer than the longest one seen, candidates are exactly the entries starting in
+ * (from - longest, to), which is a single range scan of the skip list.
+ * Reads are lock-free; writes are serialized on the index.
+ */
+public class SlotIntervalIndex {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::start)
+            .thenComparingLong(Key::slotId);
+
+    private final ConcurrentSkipListMap<Key, Entry> byStart = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<Long, Entry> bySlotId = new ConcurrentHashMap<>();
+    private volatile Duration longest = Duration.ZERO;
+
+    public record Entry(long slotId, long teacherId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record Key(LocalDateTime start, long slotId) {
+    }
+
+    public synchronized void put(Entry entry) {
+        remove(entry.slotId());
+        byStart.put(new Key(entry.start(), entry.slotId()), entry);
+        bySlotId.put(entry.slotId(), entry);
+
+        Duration duration = Duration.between(entry.start(), entry.end());
+        if (duration.compareTo(longest) > 0) {
+            longest = duration;
+        }
+    }
+
+    public synchronized void remove(long slotId) {
+        Entry existing = bySlotId.remove(slotId);
+        if (existing != null) {
+            byStart.remove(new Key(existing.start(), existing.slotId()));
+        }
+    }
+
+    /**
+     * Removes every interval that ended at or before the given instant.
+     */
+    public synchronized int removeEndedBefore(LocalDateTime instant) {
+        int removed = 0;
+        for (Entry entry : byStart.headMap(new Key(instant, Long.MIN_VALUE)).values()) {
+            if (!entry.end().isAfter(instant)) {
+                remove(entry.slotId());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public List<Entry> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        Key lower = new Key(from.minus(longest), Long.MIN_VALUE);
+        Key upper = new Key(to, Long.MIN_VALUE);
+
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : byStart.subMap(lower, false, upper, false).values()) {
+            if (entry.end().isAfter(from)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return bySlotId.size();
+    }
+}
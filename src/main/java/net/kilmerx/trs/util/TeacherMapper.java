@@ -0,0 +1,74 @@
+package net.kilmerx.trs.util;
+
+import net.kilmerx.trs.dto.SkillDTO;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.model.Skill;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Teacher;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TeacherMapper {
+
+    /**
+     * Assembles catalog DTOs from teachers (with their users loaded) and the skills and
+     * slots fetched for all of them at once. Teacher order is preserved.
+     */
+    public static List<TeacherDTO> toDTOs(List<Teacher> teachers, List<Skill> skills, List<Slot> slots) {
+        Map<Long, List<SkillDTO>> skillsByTeacher = skills.stream()
+                .collect(Collectors.groupingBy(skill -> skill.getTeacher().getId(),
+                        Collectors.mapping(TeacherMapper::toSkillDTO, Collectors.toList())));
+
+        Map<Long, List<SlotDTO>> slotsByTeacher = slots.stream()
+                .collect(Collectors.groupingBy(slot -> slot.getTeacher().getId(),
+                        Collectors.mapping(TeacherMapper::toSlotDTO, Collectors.toList())));
+
+        return teachers.stream()
+                .map(teacher -> build(teacher,
+                        skillsByTeacher.getOrDefault(teacher.getId(), Collections.emptyList()),
+                        slotsByTeacher.getOrDefault(teacher.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Assembles one teacher's DTO (the teacher's own profile) from the teacher, with its user
+     * loaded, and that teacher's skills and slots.
+     */
+    public static TeacherDTO toDTO(Teacher teacher, List<Skill> skills, List<Slot> slots) {
+        return build(teacher,
+                skills.stream().map(TeacherMapper::toSkillDTO).collect(Collectors.toList()),
+                slots.stream().map(TeacherMapper::toSlotDTO).collect(Collectors.toList()));
+    }
+
+    private static TeacherDTO build(Teacher teacher, List<SkillDTO> skills, List<SlotDTO> slots) {
+        return TeacherDTO.builder()
+                .id(teacher.getId())
+                .userId(teacher.getUser().getId())
+                .username(teacher.getUser().getUsername())
+                .cvUrl(teacher.getCvUrl())
+                .skills(skills)
+                .availableSlots(slots)
+                .build();
+    }
+
+    public static SkillDTO toSkillDTO(Skill skill) {
+        return SkillDTO.builder()
+                .id(skill.getId())
+                .skillName(skill.getSkillName())
+                .build();
+    }
+
+    public static SlotDTO toSlotDTO(Slot slot) {
+        return SlotDTO.builder()
+                .id(slot.getId())
+                .startDateTime(slot.getStartDateTime())
+                .endDateTime(slot.getEndDateTime())
+                .available(slot.getAvailable())
+                .createdAt(slot.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+-- Schema as previously created by Hibernate (ddl-auto=update). Written with "if not exists"
+-- so that it also runs on databases Hibernate created, filling in whatever they lack.
+
+create sequence if not exists slots_seq start with 1 increment by 50;
+create sequence if not exists reservations_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id bigint generated by default as identity primary key,
+    username varchar(255) not null constraint ux_users_username unique,
+    password varchar(255) not null,
+    email varchar(255) not null constraint ux_users_email unique,
+    role varchar(255) check (role in ('STUDENT', 'TEACHER', 'ADMIN')),
+    enabled boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists student_profiles (
+    id bigint generated by default as identity primary key,
+    user_id bigint not null constraint ux_student_profiles_user unique references users (id),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists teacher_profiles (
+    id bigint generated by default as identity primary key,
+    user_id bigint not null constraint ux_teacher_profiles_user unique references users (id),
+    cv_url varchar(255) not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists admin_profiles (
+    id bigint generated by default as identity primary key,
+    user_id bigint not null constraint ux_admin_profiles_user unique references users (id),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists skills (
+    id bigint generated by default as identity primary key,
+    skill_name varchar(255) not null,
+    teacher_id bigint not null references teacher_profiles (id),
+    created_at timestamp(6) not null
+);
+
+create table if not exists availability_rules (
+    id bigint generated by default as identity primary key,
+    teacher_id bigint not null references teacher_profiles (id),
+    day_of_week varchar(255) not null
+        check (day_of_week in ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    start_time time(6) not null,
+    end_time time(6) not null,
+    valid_from date not null,
+    valid_until date not null,
+    materialized_until date not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists availability_rule_exceptions (
+    rule_id bigint not null references availability_rules (id),
+    exception_date date not null,
+    primary key (rule_id, exception_date)
+);
+
+create table if not exists slots (
+    id bigint primary key,
+    teacher_id bigint not null references teacher_profiles (id),
+    start_date_time timestamp(6) not null,
+    end_date_time timestamp(6) not null,
+    available boolean not null,
+    rule_id bigint,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists reservations (
+    id bigint primary key,
+    student_id bigint not null references student_profiles (id),
+    slot_id bigint not null references slots (id),
+    status varchar(255) not null,
+    hold_expires_at timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists teacher_registration_requests (
+    id bigint generated by default as identity primary key,
+    username varchar(255) not null,
+    password_hash varchar(255) not null,
+    cv_url varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING', 'APPROVED', 'REJECTED')),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table if not exists teacher_registration_request_skills (
+    request_id bigint not null references teacher_registration_requests (id),
+    skill_name varchar(255) not null
+);
+
+create table if not exists slot_tombstones (
+    slot_id bigint primary key,
+    teacher_id bigint not null,
+    deleted_at timestamp(6) not null
+);
+
+create table if not exists idempotency_keys (
+    id bigint generated by default as identity primary key,
+    scope varchar(100) not null,
+    idempotency_key varchar(255) not null,
+    fingerprint varchar(64) not null,
+    status varchar(255) not null check (status in ('IN_PROGRESS', 'COMPLETED')),
+    response_status integer,
+    response_body text,
+    locked_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    constraint ux_idempotency_keys_scope_key unique (scope, idempotency_key)
+);
+
+create table if not exists scheduler_locks (
+    name varchar(64) primary key,
+    locked_until timestamp(6) not null,
+    locked_at timestamp(6) not null,
+    locked_by varchar(255) not null
+);
+
+-- Columns added after the tables were first created by Hibernate
+alter table slots add column if not exists rule_id bigint;
+alter table reservations add column if not exists hold_expires_at timestamp(6);
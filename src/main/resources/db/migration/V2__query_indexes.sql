@@ -0,0 +1,89 @@
+-- Constraints and indexes the queries rely on; previously applied by schema.sql, so every
+-- statement is idempotent.
+
+-- Hibernate generated the status check before HELD existed and never updated it.
+alter table reservations drop constraint if exists reservations_status_check;
+alter table reservations add constraint reservations_status_check
+    check (status in ('HELD', 'ACTIVE', 'COMPLETED', 'CANCELLED'));
+
+-- At most one held or active reservation per slot; backs the conditional claim in ReservationService.
+-- Databases that predate the index can already hold double bookings, which would fail the index
+-- build and with it startup. Keep the oldest live reservation per slot, cancel the rest and log
+-- each one so the affected students can be contacted.
+do $$
+declare
+    duplicate record;
+begin
+    for duplicate in
+        select id, slot_id, student_id
+        from (select id, slot_id, student_id,
+                     row_number() over (partition by slot_id order by created_at, id) as position
+              from reservations
+              where status in ('HELD', 'ACTIVE')) live
+        where position > 1
+    loop
+        raise warning 'Cancelling duplicate live reservation % (slot %, student %)',
+            duplicate.id, duplicate.slot_id, duplicate.student_id;
+        update reservations set status = 'CANCELLED', hold_expires_at = null, updated_at = now()
+        where id = duplicate.id;
+    end loop;
+end $$;
+
+drop index if exists ux_reservations_active_slot;
+create unique index if not exists ux_reservations_live_slot
+    on reservations (slot_id)
+    where status in ('HELD', 'ACTIVE');
+
+-- Only held reservations are ever looked up by expiry (HoldExpiryService sweep).
+create index if not exists ix_reservations_held_expiry
+    on reservations (hold_expires_at)
+    where status = 'HELD';
+
+-- Slot and reservation ids moved from IDENTITY to pooled sequences (allocation size 50). Move the
+-- sequences past the ids already handed out by the identity columns; a no-op on new databases.
+select setval('slots_seq', (select max(id) from slots) + 50)
+where (select last_value from slots_seq) <= (select coalesce(max(id), 0) from slots);
+select setval('reservations_seq', (select max(id) from reservations) + 50)
+where (select last_value from reservations_seq) <= (select coalesce(max(id), 0) from reservations);
+
+-- Teacher slot listings and the catalog: findByTeacherAndAvailable, the start range finders and
+-- the upcoming-available-slots query all lead with the teacher.
+create index if not exists ix_slots_teacher_available_start
+    on slots (teacher_id, available, start_date_time);
+
+-- Delta sync (/api/public/slots/changes) reads slots and tombstones in (time, id) order.
+create index if not exists ix_slots_updated_at_id
+    on slots (updated_at, id);
+create index if not exists ix_slot_tombstones_deleted_at_slot_id
+    on slot_tombstones (deleted_at, slot_id);
+
+-- Student reservation listing filters by student and joins to the slot.
+create index if not exists ix_reservations_student
+    on reservations (student_id, slot_id);
+
+-- The completion sweeper walks active reservations in id order; completed and cancelled
+-- history stays out of the index.
+create index if not exists ix_reservations_active_id
+    on reservations (id)
+    where status = 'ACTIVE';
+
+-- Archival walks old history by month: finished reservations by creation time and slots by start.
+create index if not exists ix_reservations_created_at
+    on reservations (created_at);
+create index if not exists ix_slots_start_date_time
+    on slots (start_date_time);
+
+-- Catalog and teacher profile load skills by teacher.
+create index if not exists ix_skills_teacher
+    on skills (teacher_id);
+
+-- Admin request listing filters by status.
+create index if not exists ix_teacher_registration_requests_status
+    on teacher_registration_requests (status);
+
+-- Rules and their materialized slots are looked up by teacher and by rule.
+create index if not exists ix_availability_rules_teacher
+    on availability_rules (teacher_id);
+create index if not exists ix_slots_rule_start
+    on slots (rule_id, start_date_time)
+    where rule_id is not null;
@@ -0,0 +1,47 @@
+-- One slot per teacher and hour. SlotService skips hours the teacher already has, but only with a
+-- read before the insert, so two concurrent range posts, or a post racing rule materialization,
+-- could still create the same hour twice; the index makes the database the arbiter.
+--
+-- Databases that predate the index can already hold such duplicates. Per teacher and hour the
+-- slot with a held or active reservation (otherwise the oldest) is kept. A live reservation on
+-- another copy would double book the teacher and is cancelled; finished reservations move to the
+-- kept slot, and the copy is deleted with a tombstone so delta sync clients drop it. Every merge
+-- is logged.
+do $$
+declare
+    duplicate record;
+    cancelled bigint;
+begin
+    for duplicate in
+        select id, keeper_id, teacher_id, start_date_time
+        from (select id, teacher_id, start_date_time,
+                     first_value(id) over (partition by teacher_id, start_date_time
+                                           order by live desc, id) as keeper_id
+              from (select s.id, s.teacher_id, s.start_date_time,
+                           exists (select 1 from reservations r
+                                   where r.slot_id = s.id and r.status in ('HELD', 'ACTIVE')) as live
+                    from slots s) slot_state) ranked
+        where id <> keeper_id
+    loop
+        for cancelled in
+            update reservations set status = 'CANCELLED', hold_expires_at = null, updated_at = now()
+            where slot_id = duplicate.id and status in ('HELD', 'ACTIVE')
+            returning id
+        loop
+            raise warning 'Cancelling reservation % on duplicate slot % (teacher %, %)',
+                cancelled, duplicate.id, duplicate.teacher_id, duplicate.start_date_time;
+        end loop;
+
+        raise warning 'Merging duplicate slot % into slot % (teacher %, %)',
+            duplicate.id, duplicate.keeper_id, duplicate.teacher_id, duplicate.start_date_time;
+        update reservations set slot_id = duplicate.keeper_id, updated_at = now()
+        where slot_id = duplicate.id;
+        insert into slot_tombstones (slot_id, teacher_id, deleted_at)
+        values (duplicate.id, duplicate.teacher_id, now())
+        on conflict (slot_id) do nothing;
+        delete from slots where id = duplicate.id;
+    end loop;
+end $$;
+
+create unique index if not exists ux_slots_teacher_start
+    on slots (teacher_id, start_date_time);
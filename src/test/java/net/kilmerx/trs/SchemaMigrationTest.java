@@ -0,0 +1,119 @@
+package net.kilmerx.trs;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against Postgres and starts the application on the result with
+ * {@code ddl-auto=validate} and the index check on, as in production. The rest of the suite runs
+ * on an H2 schema generated from the entities, so entity and migration drift only shows up here.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "app.schema.verify-indexes=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void migrationsProduceTheSchemaTheEntitiesExpect() {
+        // The context only starts if Hibernate validated the migrated schema
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()).allMatch(migration -> migration.getState().isApplied());
+    }
+
+    @Test
+    void liveSlotIndexMigrationCancelsExistingDoubleBookings() {
+        Flyway legacy = Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas("legacy")
+                .target("1")
+                .load();
+        legacy.migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl() + "&currentSchema=legacy", postgres.getUsername(), postgres.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into users (id, username, password, email, role, enabled, created_at, updated_at) values "
+                + "(1, 'teacher', 'x', 'teacher@trs.local', 'TEACHER', true, now(), now()), "
+                + "(2, 'first', 'x', 'first@trs.local', 'STUDENT', true, now(), now()), "
+                + "(3, 'second', 'x', 'second@trs.local', 'STUDENT', true, now(), now())");
+        jdbc.update("insert into teacher_profiles (id, user_id, cv_url, created_at, updated_at) "
+                + "values (1, 1, 'cv.pdf', now(), now())");
+        jdbc.update("insert into student_profiles (id, user_id, created_at, updated_at) "
+                + "values (1, 2, now(), now()), (2, 3, now(), now())");
+        jdbc.update("insert into slots (id, teacher_id, start_date_time, end_date_time, available, created_at, updated_at) "
+                + "values (1, 1, now(), now() + interval '1 hour', false, now(), now())");
+        jdbc.update("insert into reservations (id, student_id, slot_id, status, created_at, updated_at) values "
+                + "(1, 1, 1, 'ACTIVE', now() - interval '1 minute', now()), "
+                + "(2, 2, 1, 'ACTIVE', now(), now())");
+
+        Flyway.configure()
+                .configuration(legacy.getConfiguration())
+                .target("latest")
+                .load()
+                .migrate();
+
+        assertThat(jdbc.queryForList("select status from reservations order by id", String.class))
+                .containsExactly("ACTIVE", "CANCELLED");
+    }
+
+    @Test
+    void uniqueSlotMigrationMergesDuplicateHours() {
+        Flyway legacy = Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas("legacy_slots")
+                .target("2")
+                .load();
+        legacy.migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl() + "&currentSchema=legacy_slots", postgres.getUsername(), postgres.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into users (id, username, password, email, role, enabled, created_at, updated_at) values "
+                + "(1, 'teacher', 'x', 'teacher@trs.local', 'TEACHER', true, now(), now()), "
+                + "(2, 'student', 'x', 'student@trs.local', 'STUDENT', true, now(), now())");
+        jdbc.update("insert into teacher_profiles (id, user_id, cv_url, created_at, updated_at) "
+                + "values (1, 1, 'cv.pdf', now(), now())");
+        jdbc.update("insert into student_profiles (id, user_id, created_at, updated_at) values (1, 2, now(), now())");
+        // Three copies of one hour; only the last is booked, so it is the one kept
+        jdbc.update("insert into slots (id, teacher_id, start_date_time, end_date_time, available, created_at, updated_at) "
+                + "values (1, 1, '2030-01-07 09:00', '2030-01-07 10:00', true, now(), now()), "
+                + "(2, 1, '2030-01-07 09:00', '2030-01-07 10:00', false, now(), now()), "
+                + "(3, 1, '2030-01-07 09:00', '2030-01-07 10:00', false, now(), now())");
+        jdbc.update("insert into reservations (id, student_id, slot_id, status, created_at, updated_at) values "
+                + "(1, 1, 2, 'CANCELLED', now(), now()), "
+                + "(2, 1, 3, 'ACTIVE', now(), now())");
+
+        Flyway.configure()
+                .configuration(legacy.getConfiguration())
+                .target("latest")
+                .load()
+                .migrate();
+
+        assertThat(jdbc.queryForList("select id from slots", Long.class)).containsExactly(3L);
+        assertThat(jdbc.queryForList("select slot_id from reservations order by id", Long.class))
+                .containsExactly(3L, 3L);
+        assertThat(jdbc.queryForList("select slot_id from slot_tombstones order by slot_id", Long.class))
+                .containsExactly(1L, 2L);
+    }
+}
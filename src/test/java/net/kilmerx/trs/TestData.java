@@ -0,0 +1,81 @@
+package net.kilmerx.trs;
+
+import lombok.RequiredArgsConstructor;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.StudentRepository;
+import net.kilmerx.trs.repository.TeacherRepository;
+import net.kilmerx.trs.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Saves users, profiles and slots for integration tests. Usernames are random, so tests can
+ * share the context's database without cleaning up after each other.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestData {
+
+    private final UserRepository userRepository;
+    private final TeacherRepository teacherRepository;
+    private final StudentRepository studentRepository;
+    private final SlotRepository slotRepository;
+
+    public User user(User.UserRole role) {
+        String username = role.name().toLowerCase() + "-" + UUID.randomUUID();
+        return userRepository.save(User.builder()
+                .username(username)
+                .password("hash")
+                .email(username + "@trs.local")
+                .role(role)
+                .build());
+    }
+
+    public Teacher teacher() {
+        return teacherRepository.save(Teacher.builder().user(user(User.UserRole.TEACHER)).cvUrl("cv.pdf").build());
+    }
+
+    public Student student() {
+        return studentRepository.save(Student.builder().user(user(User.UserRole.STUDENT)).build());
+    }
+
+    /**
+     * Consecutive one-hour slots starting at the next full hour tomorrow.
+     */
+    public List<Slot> slots(Teacher teacher, int count) {
+        LocalDateTime start = tomorrow();
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            slots.add(buildSlot(teacher, start.plusHours(i)));
+        }
+        return slotRepository.saveAll(slots);
+    }
+
+    public Slot slot(Teacher teacher, LocalDateTime start) {
+        return slotRepository.save(buildSlot(teacher, start));
+    }
+
+    /**
+     * A full hour one day from now, the default start for test slots.
+     */
+    public static LocalDateTime tomorrow() {
+        return LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static Slot buildSlot(Teacher teacher, LocalDateTime start) {
+        return Slot.builder()
+                .teacher(teacher)
+                .startDateTime(start)
+                .endDateTime(start.plusHours(1))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package net.kilmerx.trs.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTest {
+
+    private static final Duration ACQUIRE_TIMEOUT = Duration.ofMillis(100);
+
+    private final DataSource target = mock(DataSource.class);
+    private final ConnectionLimitingDataSource dataSource =
+            new ConnectionLimitingDataSource(target, 2, ACQUIRE_TIMEOUT);
+
+    @Test
+    void closingReleasesThePermitExactlyOnce() throws SQLException {
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(dataSource.getAvailable()).isZero();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getAvailable()).isEqualTo(1);
+        verify(raw, times(2)).close();
+        second.close();
+        assertThat(dataSource.getAvailable()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCheckoutReleasesThePermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+
+        assertThat(dataSource.getAvailable()).isEqualTo(2);
+    }
+
+    @Test
+    void callersGiveUpOnceThePermitsRunOut() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(ACQUIRE_TIMEOUT);
+
+        first.close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void objectMethodsDescribeTheProxy() throws SQLException {
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+
+        Connection connection = dataSource.getConnection();
+        Connection other = dataSource.getConnection();
+
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(other).isNotEqualTo(raw);
+        assertThat(connection.hashCode()).isEqualTo(System.identityHashCode(connection));
+        assertThat(connection.toString()).startsWith("Limited[");
+    }
+}
@@ -0,0 +1,58 @@
+package net.kilmerx.trs.controller;
+
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // The real bounded encoder; a test makes it turn hashes away as a saturated pool would
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void loginOfAnUnknownUserIsAnsweredWith429WhenTheHashIsRejected() throws Exception {
+        // The dummy check against unknown users is rejected inside Spring Security's provider
+        doThrow(new PasswordHashingRejectedException("Too many password checks in progress"))
+                .when(passwordEncoder).matches(any(), anyString());
+
+        mockMvc.perform(login("nobody-" + UUID.randomUUID()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void loginOfAnUnknownUserIsUnauthorizedOtherwise() throws Exception {
+        mockMvc.perform(login("nobody-" + UUID.randomUUID()))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static RequestBuilder login(String username) {
+        return post("/api/public/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"" + username + "\", \"password\": \"secret\"}");
+    }
+}
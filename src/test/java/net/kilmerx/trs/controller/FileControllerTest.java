@@ -0,0 +1,137 @@
+package net.kilmerx.trs.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import net.kilmerx.trs.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Low enough that the test file qualifies for sendfile
+@SpringBootTest(properties = "file.download.sendfile-min-size=16")
+@AutoConfigureMockMvc
+class FileControllerTest {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private String fileName;
+
+    @BeforeEach
+    void storeFile() throws IOException {
+        fileName = fileStorageService.storeFile(new MockMultipartFile("file", "cv.txt", "text/plain",
+                CONTENT.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void downloadsTheWholeFile() throws Exception {
+        double before = downloadedBytes();
+
+        mockMvc.perform(get(url()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(CONTENT));
+
+        assertThat(downloadedBytes() - before).isEqualTo(CONTENT.length());
+    }
+
+    @Test
+    void answersConditionalRequestsWithNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get(url())).andExpect(status().isOk()).andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(eTag).isNotNull();
+        assertThat(lastModified).isNotNull();
+
+        mockMvc.perform(get(url()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get(url()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(url()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void servesRangesAsPartialContentWithoutSendfile() throws Exception {
+        double before = downloadedBytes();
+
+        mockMvc.perform(get(url())
+                        .requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + CONTENT.length()))
+                .andExpect(content().string(CONTENT.substring(10, 20)))
+                .andExpect(request().attribute(SENDFILE_FILENAME, nullValue()));
+
+        // Only the served range counts, not the whole file
+        assertThat(downloadedBytes() - before).isEqualTo(10);
+    }
+
+    @Test
+    void handsFullDownloadsToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        mockMvc.perform(get(url()).requestAttr(SENDFILE_SUPPORT, true))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(content().string(""))
+                .andExpect(request().attribute(SENDFILE_FILENAME,
+                        Paths.get("target", "test-uploads", fileName).toAbsolutePath().normalize().toString()));
+    }
+
+    @Test
+    void refusesNamesOutsideTheUploadFolder() {
+        String absolute = Paths.get("pom.xml").toAbsolutePath().toString();
+
+        assertThatThrownBy(() -> fileStorageService.loadFile("../pom.xml")).hasMessageStartingWith("Invalid file name");
+        assertThatThrownBy(() -> fileStorageService.loadFile("..")).hasMessageStartingWith("Invalid file name");
+        assertThatThrownBy(() -> fileStorageService.loadFile(absolute)).hasMessageStartingWith("Invalid file name");
+        assertThatThrownBy(() -> fileStorageService.deleteFile("../pom.xml"))
+                .hasMessageStartingWith("Invalid file name");
+        assertThat(Paths.get("pom.xml")).exists();
+    }
+
+    @Test
+    void missingFilesAreNotFound() throws Exception {
+        mockMvc.perform(get("/api/public/files/download/{fileName}", "missing.pdf"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String url() {
+        return "/api/public/files/download/" + fileName;
+    }
+
+    private double downloadedBytes() {
+        DistributionSummary summary = Search.in(registry).name("trs.files.download.bytes").summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
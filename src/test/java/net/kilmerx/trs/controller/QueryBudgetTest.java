@@ -0,0 +1,166 @@
+package net.kilmerx.trs.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.event.TeacherCreatedEvent;
+import net.kilmerx.trs.metrics.QueryCounter;
+import net.kilmerx.trs.model.Reservation;
+import net.kilmerx.trs.model.Skill;
+import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.model.TeacherRegistrationRequestEntity;
+import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.TeacherRegistrationRequestRepository;
+import net.kilmerx.trs.security.CustomUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Per-endpoint SQL statement budgets. Every listing is measured with several rows of data that
+ * are not cached yet, so a mapping that lazily loads associations per row blows the budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TeacherRegistrationRequestRepository requestRepository;
+
+    private QueryCounter queries;
+
+    @BeforeEach
+    void setUp() {
+        queries = new QueryCounter(registry);
+    }
+
+    @Test
+    void teacherPageLoadsUncachedTeachersInFourStatements() throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            // As on registration; also moves the list version so the page is rendered again
+            eventPublisher.publishEvent(new TeacherCreatedEvent(createTeacher().getId()));
+        }
+
+        long statements = queries.count("GET", "/api/public/teachers", () ->
+                mockMvc.perform(get("/api/public/teachers").param("size", "100"))
+                        .andExpect(status().isOk()));
+
+        // Page ids, then teachers with users, skills and slots for all uncached teachers at once
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void teacherLoadsInThreeStatements() throws Exception {
+        Teacher teacher = createTeacher();
+
+        long statements = queries.count("GET", "/api/public/teachers/{teacherId}", () ->
+                mockMvc.perform(get("/api/public/teachers/{teacherId}", teacher.getId()))
+                        .andExpect(status().isOk()));
+
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void teacherProfileLoadsInThreeStatements() throws Exception {
+        Teacher teacher = createTeacher();
+
+        long statements = queries.count("GET", "/api/teacher/profile", () ->
+                mockMvc.perform(get("/api/teacher/profile")
+                                .with(user(new CustomUserDetails(teacher.getUser(), teacher.getId()))))
+                        .andExpect(status().isOk()));
+
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void studentReservationsLoadInOneStatement() throws Exception {
+        Student student = testData.student();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Teacher teacher = createTeacher();
+            reservations.add(Reservation.builder()
+                    .student(student)
+                    .slot(slotRepository.findByTeacherId(teacher.getId()).getFirst())
+                    .status(Reservation.ReservationStatus.ACTIVE)
+                    .build());
+        }
+        reservationRepository.saveAll(reservations);
+
+        long statements = queries.count("GET", "/api/student/reservations", () ->
+                mockMvc.perform(get("/api/student/reservations")
+                                .with(user(new CustomUserDetails(student.getUser(), student.getId()))))
+                        .andExpect(status().isOk()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void teacherRequestsLoadWithSkillsInOneStatement() throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            requestRepository.save(TeacherRegistrationRequestEntity.builder()
+                    .username("applicant-" + UUID.randomUUID())
+                    .passwordHash("hash")
+                    .cvUrl("cv.pdf")
+                    .skills(new ArrayList<>(List.of("Maths", "Physics")))
+                    .status(TeacherRegistrationRequestEntity.RequestStatus.PENDING)
+                    .build());
+        }
+        User admin = testData.user(User.UserRole.ADMIN);
+
+        long statements = queries.count("GET", "/api/admin/teacher-requests", () ->
+                mockMvc.perform(get("/api/admin/teacher-requests").with(user(new CustomUserDetails(admin))))
+                        .andExpect(status().isOk()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    private Teacher createTeacher() {
+        Teacher teacher = testData.teacher();
+        List<Skill> skills = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            skills.add(Skill.builder().teacher(teacher).skillName("Skill " + i).build());
+        }
+        skillRepository.saveAll(skills);
+        testData.slots(teacher, ROWS);
+        return teacher;
+    }
+}
@@ -0,0 +1,48 @@
+package net.kilmerx.trs.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements one request issued, from the per-endpoint distribution that
+ * {@link DbQueryMetricsInterceptor} records, so tests see the same numbers as production.
+ */
+public class QueryCounter {
+
+    private static final String METRIC = "trs.http.db.statements";
+
+    @FunctionalInterface
+    public interface Request {
+        void perform() throws Exception;
+    }
+
+    private final MeterRegistry registry;
+
+    public QueryCounter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Runs the request and returns the statements recorded for the endpoint while it ran.
+     *
+     * @param uriPattern the mapping pattern, e.g. {@code /api/public/teachers/{teacherId}}
+     */
+    public long count(String method, String uriPattern, Request request) throws Exception {
+        DistributionSummary before = find(method, uriPattern);
+        long countBefore = before == null ? 0 : before.count();
+        double totalBefore = before == null ? 0 : before.totalAmount();
+
+        request.perform();
+
+        DistributionSummary after = find(method, uriPattern);
+        assertThat(after).as("statements recorded for %s %s", method, uriPattern).isNotNull();
+        assertThat(after.count()).as("requests recorded for %s %s", method, uriPattern).isEqualTo(countBefore + 1);
+        return Math.round(after.totalAmount() - totalBefore);
+    }
+
+    private DistributionSummary find(String method, String uriPattern) {
+        return registry.find(METRIC).tag("method", method).tag("uri", uriPattern).summary();
+    }
+}
@@ -0,0 +1,131 @@
+package net.kilmerx.trs.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void onlyMatchingPathsAndMethodsTakeTokens() {
+        RateLimitService service = service(Map.of(
+                "app.rate-limit.limits.auth.paths", "/api/public/auth/**",
+                "app.rate-limit.limits.auth.methods", "post",
+                "app.rate-limit.limits.auth.capacity", "1",
+                "app.rate-limit.limits.auth.period", "PT1M"));
+
+        assertThat(acquireIp(service, "GET", "/api/public/auth/login").allowed()).isTrue();
+        assertThat(acquireIp(service, "POST", "/api/public/teachers").allowed()).isTrue();
+        assertThat(acquireIp(service, "POST", "/api/public/auth/login").allowed()).isTrue();
+
+        RateLimitService.Decision refused = acquireIp(service, "POST", "/api/public/auth/logout");
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterSeconds()).isBetween(59L, 60L);
+        assertThat(count("auth", "allowed")).isEqualTo(1);
+        assertThat(count("auth", "limited")).isEqualTo(1);
+    }
+
+    @Test
+    void loginLimitIsPerUsernameAndClientAddress() {
+        RateLimitService service = service(Map.of(
+                "app.rate-limit.limits.login.paths", "/api/public/auth/login",
+                "app.rate-limit.limits.login.key", "username-ip",
+                "app.rate-limit.limits.login.capacity", "1",
+                "app.rate-limit.limits.login.period", "PT5M"));
+
+        assertThat(acquireLogin(service, "Victim", "10.0.0.1").allowed()).isTrue();
+        assertThat(acquireLogin(service, "victim", "10.0.0.1").allowed()).isFalse();
+        // Someone else guessing from another address does not lock the owner out, and vice versa
+        assertThat(acquireLogin(service, "victim", "10.0.0.2").allowed()).isTrue();
+        assertThat(acquireLogin(service, "other", "10.0.0.1").allowed()).isTrue();
+    }
+
+    @Test
+    void failClosedLimitsRefuseUntrackedKeys() {
+        Map<String, String> config = new LinkedHashMap<>();
+        config.put("app.rate-limit.max-keys", "1");
+        config.put("app.rate-limit.limits.login.paths", "/api/public/auth/login");
+        config.put("app.rate-limit.limits.login.key", "username-ip");
+        config.put("app.rate-limit.limits.login.capacity", "5");
+        config.put("app.rate-limit.limits.login.period", "PT5M");
+        RateLimitService open = service(config);
+        config.put("app.rate-limit.limits.login.fail-closed", "true");
+        RateLimitService closed = service(config);
+
+        assertThat(acquireLogin(open, "first", "10.0.0.1").allowed()).isTrue();
+        assertThat(acquireLogin(open, "second", "10.0.0.1").allowed()).isTrue();
+
+        assertThat(acquireLogin(closed, "first", "10.0.0.1").allowed()).isTrue();
+        RateLimitService.Decision refused = acquireLogin(closed, "second", "10.0.0.1");
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterSeconds()).isEqualTo(60);
+        assertThat(count("login", "untracked")).isEqualTo(1);
+    }
+
+    @Test
+    void shadowLimitsOnlyCount() {
+        RateLimitService service = service(Map.of(
+                "app.rate-limit.shadow", "true",
+                "app.rate-limit.limits.auth.paths", "/api/public/auth/**",
+                "app.rate-limit.limits.auth.capacity", "1",
+                "app.rate-limit.limits.auth.period", "PT1M"));
+
+        assertThat(acquireIp(service, "POST", "/api/public/auth/login").allowed()).isTrue();
+        assertThat(acquireIp(service, "POST", "/api/public/auth/login").allowed()).isTrue();
+        assertThat(count("auth", "shadow_limited")).isEqualTo(1);
+    }
+
+    @Test
+    void missingKeysAndDisabledLimitsAllowEverything() {
+        Map<String, String> config = new LinkedHashMap<>();
+        config.put("app.rate-limit.limits.user.paths", "/api/student/**");
+        config.put("app.rate-limit.limits.user.key", "username");
+        config.put("app.rate-limit.limits.user.capacity", "1");
+        config.put("app.rate-limit.limits.user.period", "PT1M");
+        RateLimitService service = service(config);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/student/reservations");
+
+        assertThat(service.acquire(request, RateLimitProperties.Key.USERNAME, null).allowed()).isTrue();
+        assertThat(service.acquire(request, RateLimitProperties.Key.USERNAME, null).allowed()).isTrue();
+
+        config.put("app.rate-limit.enabled", "false");
+        RateLimitService disabled = service(config);
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.acquire(request, RateLimitProperties.Key.USERNAME, "student").allowed()).isTrue();
+        assertThat(disabled.acquire(request, RateLimitProperties.Key.USERNAME, "student").allowed()).isTrue();
+    }
+
+    private RateLimitService service(Map<String, String> config) {
+        RateLimitProperties properties = new Binder(new MapConfigurationPropertySource(config))
+                .bindOrCreate("app.rate-limit", RateLimitProperties.class);
+        registry.clear();
+        RateLimitService service = new RateLimitService(properties, new TrsMetrics(registry));
+        service.init();
+        return service;
+    }
+
+    private static RateLimitService.Decision acquireIp(RateLimitService service, String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        return service.acquire(request, RateLimitProperties.Key.IP, request.getRemoteAddr());
+    }
+
+    private static RateLimitService.Decision acquireLogin(RateLimitService service, String username, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/public/auth/login");
+        request.setRemoteAddr(address);
+        return service.acquire(request, RateLimitProperties.Key.USERNAME_IP, username);
+    }
+
+    private double count(String limit, String outcome) {
+        return registry.get("trs.ratelimit.requests").tag("limit", limit).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,117 @@
+package net.kilmerx.trs.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    // 5 tokens, one earned back every second
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(5, Duration.ofSeconds(5), 100);
+
+    @Test
+    void allowsAFullBurstThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("a", 0)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("a", 0)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("a", SECOND / 4)).isEqualTo(SECOND * 3 / 4);
+    }
+
+    @Test
+    void earnsTokensBackOverThePeriod() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a", 0);
+        }
+
+        assertThat(limiter.tryAcquire("a", SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", SECOND)).isPositive();
+
+        // Idle for longer than the period: a full burst again, not more
+        long later = 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("a", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("a", later)).isPositive();
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a", 0);
+        }
+
+        assertThat(limiter.tryAcquire("a", 0)).isPositive();
+        assertThat(limiter.tryAcquire("b", 0)).isZero();
+    }
+
+    @Test
+    void newKeysAreUntrackedOnceMaxKeysExist() {
+        TokenBucketLimiter small = new TokenBucketLimiter(1, Duration.ofSeconds(1), 2);
+        small.tryAcquire("a", 0);
+        small.tryAcquire("b", 0);
+
+        assertThat(small.tryAcquire("c", 0)).isEqualTo(TokenBucketLimiter.UNTRACKED);
+        // Tracked keys are still limited
+        assertThat(small.tryAcquire("a", 0)).isPositive();
+        assertThat(small.size()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveRefilled() {
+        limiter.tryAcquire("a", 0);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("b", 0);
+        }
+
+        // "a" is full again after one second, "b" only after five
+        assertThat(limiter.evictIdle(2 * SECOND)).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("b", 2 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("b", 2 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("b", 2 * SECOND)).isPositive();
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheBurst() throws Exception {
+        TokenBucketLimiter shared = new TokenBucketLimiter(50, Duration.ofHours(1), 100);
+        long now = System.nanoTime();
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (shared.tryAcquire("hot", now) == 0) {
+                            taken.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(taken).hasValue(50);
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> new TokenBucketLimiter(0, Duration.ofSeconds(1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketLimiter(1, Duration.ZERO, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
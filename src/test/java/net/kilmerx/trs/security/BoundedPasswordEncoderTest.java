@@ -0,0 +1,95 @@
+package net.kilmerx.trs.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.kilmerx.trs.exception.PasswordHashingRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsHashesOnceThePoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1, registry)) {
+            // One hash runs on the only thread, the next one waits in the queue
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+            await().atMost(Duration.ofSeconds(10)).until(() -> gauge("trs.password.active") == 1);
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("second", "second"));
+            await().atMost(Duration.ofSeconds(10)).until(() -> gauge("trs.password.queue.depth") == 1);
+
+            assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(PasswordHashingRejectedException.class);
+            assertThatThrownBy(() -> encoder.matches("third", "third"))
+                    .isInstanceOf(PasswordHashingRejectedException.class);
+            assertThat(registry.get("trs.password.rejected").counter().count()).isEqualTo(2);
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+            // With room again, hashes are accepted
+            assertThat(encoder.encode("fourth")).isEqualTo("fourth");
+            assertThat(registry.get("trs.password.rejected").counter().count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void delegateFailuresReachTheCaller() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(new CountDownLatch(0)) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("password too long");
+            }
+        }, 1, 1, registry)) {
+            assertThatThrownBy(() -> encoder.encode("x"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("password too long");
+        }
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    /**
+     * "Hashes" to the raw password itself, once the latch is released.
+     */
+    private static class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+        private void await() {
+            try {
+                assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
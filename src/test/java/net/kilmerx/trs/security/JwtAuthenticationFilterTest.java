@@ -0,0 +1,48 @@
+package net.kilmerx.trs.security;
+
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The enabled flag is not cached, so the second request sees the update at once
+@SpringBootTest(properties = "jwt.user-status.ttl=PT0S")
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void disablingAUserRevokesTheirStatelessTokens() throws Exception {
+        Student student = testData.student();
+        User user = student.getUser();
+        String token = tokenProvider.generateToken(new CustomUserDetails(user, student.getId()));
+
+        mockMvc.perform(get("/api/student/reservations").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        user.setEnabled(false);
+        userRepository.save(user);
+
+        mockMvc.perform(get("/api/student/reservations").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,141 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.dto.ReservationArchiveRow;
+import net.kilmerx.trs.dto.SlotArchiveRow;
+import net.kilmerx.trs.model.Reservation;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A batch size of 2 makes every month more than one keyset chunk
+@SpringBootTest(properties = {
+        "app.archive.enabled=true",
+        "app.archive.batch-size=2",
+        "app.archive.horizon-months=12"
+})
+class ArchiveServiceTest {
+
+    // Fresh per run, so files left by an earlier run never shift the names
+    private static final Path ARCHIVE_DIR = Paths.get("target", "test-archive", UUID.randomUUID().toString());
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("app.archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void archivesFinishedHistoryAndDeletesExactlyTheArchivedRows() throws IOException {
+        LocalDateTime old = LocalDateTime.now().minusMonths(24).withDayOfMonth(10).truncatedTo(ChronoUnit.HOURS);
+        YearMonth month = YearMonth.from(old);
+        Teacher teacher = testData.teacher();
+        Student student = testData.student();
+
+        Slot completedSlot = testData.slot(teacher, old);
+        Slot cancelledSlot = testData.slot(teacher, old.plusHours(1));
+        Slot activeSlot = testData.slot(teacher, old.plusHours(2));
+        List<Slot> freeSlots = List.of(testData.slot(teacher, old.plusHours(3)), testData.slot(teacher, old.plusHours(4)),
+                testData.slot(teacher, old.plusHours(5)));
+        Slot recentSlot = testData.slot(teacher, LocalDateTime.now().minusDays(1));
+
+        Reservation completed = createReservation(student, completedSlot, Reservation.ReservationStatus.COMPLETED, old);
+        Reservation cancelled = createReservation(student, cancelledSlot, Reservation.ReservationStatus.CANCELLED, old);
+        // Old but never finished: neither it nor its slot may go
+        Reservation active = createReservation(student, activeSlot, Reservation.ReservationStatus.ACTIVE, old);
+        Reservation recent = createReservation(student, recentSlot, Reservation.ReservationStatus.COMPLETED,
+                LocalDateTime.now().minusDays(1));
+
+        archiveService.archive();
+
+        List<Long> archivedReservations = readArchive("reservations", month, ReservationArchiveRow.class).stream()
+                .map(ReservationArchiveRow::getId)
+                .toList();
+        assertThat(archivedReservations).containsExactly(completed.getId(), cancelled.getId());
+        assertThat(reservationRepository.findAllById(List.of(completed.getId(), cancelled.getId()))).isEmpty();
+        assertThat(reservationRepository.existsById(active.getId())).isTrue();
+        assertThat(reservationRepository.existsById(recent.getId())).isTrue();
+
+        List<Long> archivedSlots = readArchive("slots", month, SlotArchiveRow.class).stream()
+                .map(SlotArchiveRow::getId)
+                .toList();
+        assertThat(archivedSlots).containsExactly(completedSlot.getId(), cancelledSlot.getId(),
+                freeSlots.get(0).getId(), freeSlots.get(1).getId(), freeSlots.get(2).getId());
+        assertThat(slotRepository.findAllById(archivedSlots)).isEmpty();
+        assertThat(slotRepository.existsById(activeSlot.getId())).isTrue();
+        assertThat(slotRepository.existsById(recentSlot.getId())).isTrue();
+
+        // Nothing is left to archive, so a second run writes no new files
+        long files = countArchiveFiles();
+        archiveService.archive();
+        assertThat(countArchiveFiles()).isEqualTo(files);
+    }
+
+    private <T> List<T> readArchive(String table, YearMonth month, Class<T> type) throws IOException {
+        Path file = ARCHIVE_DIR.resolve(table + "-" + month + ".ndjson.gz");
+        assertThat(file).exists();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> jsonMapper.readValue(line, type)).toList();
+        }
+    }
+
+    private long countArchiveFiles() throws IOException {
+        try (var files = Files.list(ARCHIVE_DIR)) {
+            return files.count();
+        }
+    }
+
+    private Reservation createReservation(Student student, Slot slot, Reservation.ReservationStatus status,
+                                          LocalDateTime createdAt) {
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .student(student)
+                .slot(slot)
+                .status(status)
+                .build());
+        jdbcTemplate.update("update reservations set created_at = ? where id = ?", createdAt, reservation.getId());
+        return reservation;
+    }
+}
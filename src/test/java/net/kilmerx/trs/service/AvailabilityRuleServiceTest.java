@@ -0,0 +1,173 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.dto.AvailabilityRuleDTO;
+import net.kilmerx.trs.dto.AvailabilityRuleRequest;
+import net.kilmerx.trs.model.Reservation;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Student;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.repository.AvailabilityRuleRepository;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.security.CustomUserDetails;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Three weeks, so a weekly rule has three occurrences inside the horizon
+@SpringBootTest(properties = "app.availability.rule-horizon-days=21")
+@AutoConfigureMockMvc
+class AvailabilityRuleServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    // Tomorrow's weekday, so every occurrence lies in the future
+    private static final LocalDate FIRST = TODAY.plusDays(1);
+
+    @Autowired
+    private AvailabilityRuleService availabilityRuleService;
+
+    @Autowired
+    private AvailabilityRuleRepository ruleRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void weeklyRuleMaterializesExactlyTheStartsInsideTheHorizon() {
+        Teacher teacher = testData.teacher();
+
+        AvailabilityRuleDTO rule = availabilityRuleService.createRule(teacher.getId(),
+                rule(TODAY.plusDays(60), Set.of(FIRST.plusWeeks(1))));
+
+        // The second week is an exception, the fourth is beyond the horizon
+        assertThat(starts(teacher)).containsExactly(
+                FIRST.atTime(9, 0), FIRST.atTime(10, 0),
+                FIRST.plusWeeks(2).atTime(9, 0), FIRST.plusWeeks(2).atTime(10, 0));
+        assertThat(slotRepository.findByTeacherId(teacher.getId()))
+                .allMatch(slot -> rule.getId().equals(slot.getRuleId()));
+        assertThat(rule.getMaterializedUntil()).isEqualTo(TODAY.plusDays(21));
+    }
+
+    @Test
+    void materializationSkipsHoursTheTeacherAlreadyHas() {
+        Teacher teacher = testData.teacher();
+        Slot existing = testData.slot(teacher, FIRST.atTime(9, 0));
+
+        AvailabilityRuleDTO rule = availabilityRuleService.createRule(teacher.getId(), rule(TODAY.plusDays(60), Set.of()));
+        List<LocalDateTime> materialized = starts(teacher);
+
+        assertThat(materialized).doesNotHaveDuplicates().hasSize(6).contains(FIRST.atTime(9, 0));
+        assertThat(slotRepository.findById(existing.getId()).orElseThrow().getRuleId()).isNull();
+
+        // Running the horizon again over the same weeks adds nothing and still completes
+        jdbcTemplate.update("update availability_rules set materialized_until = ? where id = ?", TODAY, rule.getId());
+        availabilityRuleService.materializeHorizon();
+
+        assertThat(starts(teacher)).isEqualTo(materialized);
+        assertThat(ruleRepository.findById(rule.getId()).orElseThrow().getMaterializedUntil())
+                .isEqualTo(TODAY.plusDays(21));
+    }
+
+    @Test
+    void reservingAnOccurrenceBeyondTheHorizonCreatesAndBooksItsSlot() throws Exception {
+        Teacher teacher = testData.teacher();
+        Student student = testData.student();
+        AvailabilityRuleDTO rule = availabilityRuleService.createRule(teacher.getId(),
+                rule(TODAY.plusDays(120), Set.of(FIRST.plusWeeks(5))));
+        LocalDateTime occurrence = FIRST.plusWeeks(4).atTime(10, 0);
+        assertThat(slotRepository.findFirstByTeacherIdAndStartDateTime(teacher.getId(), occurrence)).isEmpty();
+
+        reserve(student, rule.getId(), occurrence).andExpect(status().isCreated());
+
+        Slot slot = slotRepository.findFirstByTeacherIdAndStartDateTime(teacher.getId(), occurrence).orElseThrow();
+        assertThat(slot.getRuleId()).isEqualTo(rule.getId());
+        assertThat(slot.getAvailable()).isFalse();
+        assertThat(reservationRepository.findAll())
+                .filteredOn(reservation -> reservation.getSlot().getId().equals(slot.getId()))
+                .singleElement()
+                .satisfies(reservation -> {
+                    assertThat(reservation.getStudent().getId()).isEqualTo(student.getId());
+                    assertThat(reservation.getStatus()).isEqualTo(Reservation.ReservationStatus.ACTIVE);
+                });
+    }
+
+    @Test
+    void reservingATimeThatIsNoOccurrenceIsRejected() throws Exception {
+        Teacher teacher = testData.teacher();
+        Student student = testData.student();
+        AvailabilityRuleDTO rule = availabilityRuleService.createRule(teacher.getId(),
+                rule(TODAY.plusDays(120), Set.of(FIRST.plusWeeks(5))));
+        int slots = slotRepository.findByTeacherId(teacher.getId()).size();
+
+        List<LocalDateTime> notOccurrences = List.of(
+                FIRST.plusWeeks(4).atTime(10, 30),              // off the hourly grid
+                FIRST.plusWeeks(4).atTime(11, 0),               // would end after the window
+                FIRST.plusWeeks(4).plusDays(1).atTime(10, 0),   // another weekday
+                FIRST.plusWeeks(5).atTime(10, 0),               // an exception date
+                FIRST.plusWeeks(20).atTime(10, 0),              // after validUntil
+                FIRST.minusWeeks(1).atTime(10, 0));             // in the past
+        for (LocalDateTime start : notOccurrences) {
+            reserve(student, rule.getId(), start).andExpect(status().isBadRequest());
+        }
+
+        assertThat(slotRepository.findByTeacherId(teacher.getId())).hasSize(slots);
+    }
+
+    private ResultActions reserve(Student student, Long ruleId, LocalDateTime start) throws Exception {
+        return mockMvc.perform(post("/api/student/reservations")
+                .with(user(new CustomUserDetails(student.getUser(), student.getId())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ruleId\": " + ruleId + ", \"startDateTime\": \"" + start + "\"}"));
+    }
+
+    private List<LocalDateTime> starts(Teacher teacher) {
+        return slotRepository.findByTeacherId(teacher.getId()).stream()
+                .map(Slot::getStartDateTime)
+                .sorted(Comparator.naturalOrder())
+                .toList();
+    }
+
+    /**
+     * Weekly 09:00-11:00 on {@link #FIRST}'s weekday, valid from today.
+     */
+    private static AvailabilityRuleRequest rule(LocalDate validUntil, Set<LocalDate> exceptions) {
+        return AvailabilityRuleRequest.builder()
+                .dayOfWeek(FIRST.getDayOfWeek())
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(11, 0))
+                .validFrom(TODAY)
+                .validUntil(validUntil)
+                .exceptions(exceptions)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.dto.TeacherAvailabilityDTO;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private final SlotRepository slotRepository = mock(SlotRepository.class);
+    private final AvailabilityService availability = new AvailabilityService(slotRepository, mock(SkillRepository.class));
+
+    @Test
+    void changesDuringRebuildAreReplayedOntoTheRebuiltIndex() throws Exception {
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        when(slotRepository.findAvailableWindowsEndingAfter(any())).thenAnswer(invocation -> {
+            // Read before the reservation below commits
+            List<SlotRepository.SlotWindow> windows = List.of(window(1L, 7L), window(2L, 7L));
+            queried.countDown();
+            assertThat(changed.await(10, TimeUnit.SECONDS)).isTrue();
+            return windows;
+        });
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(availability::rebuildIndex);
+        assertThat(queried.await(10, TimeUnit.SECONDS)).isTrue();
+        availability.onSlotChanged(event(SlotChangedEvent.ChangeType.RESERVED, 1L));
+        availability.onSlotChanged(event(SlotChangedEvent.ChangeType.CREATED, 3L));
+        changed.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        assertThat(freeSlotIds()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void changesAfterRebuildApplyToTheIndex() {
+        when(slotRepository.findAvailableWindowsEndingAfter(any())).thenReturn(List.of(window(1L, 7L)));
+        availability.rebuildIndex();
+
+        availability.onSlotChanged(event(SlotChangedEvent.ChangeType.RESERVED, 1L));
+
+        assertThat(freeSlotIds()).isEmpty();
+    }
+
+    private List<Long> freeSlotIds() {
+        return availability.findAvailableTeachers(START.minusHours(1), START.plusDays(1), null).stream()
+                .map(TeacherAvailabilityDTO::getSlots)
+                .flatMap(List::stream)
+                .map(SlotDTO::getId)
+                .toList();
+    }
+
+    private static SlotChangedEvent event(SlotChangedEvent.ChangeType type, Long slotId) {
+        return new SlotChangedEvent(7L, type, List.of(SlotDTO.builder()
+                .id(slotId)
+                .startDateTime(START.plusHours(slotId))
+                .endDateTime(START.plusHours(slotId).plusMinutes(30))
+                .build()));
+    }
+
+    private static SlotRepository.SlotWindow window(Long slotId, Long teacherId) {
+        return new SlotRepository.SlotWindow() {
+            @Override
+            public Long getId() {
+                return slotId;
+            }
+
+            @Override
+            public Long getTeacherId() {
+                return teacherId;
+            }
+
+            @Override
+            public LocalDateTime getStartDateTime() {
+                return START.plusHours(slotId);
+            }
+
+            @Override
+            public LocalDateTime getEndDateTime() {
+                return START.plusHours(slotId).plusMinutes(30);
+            }
+        };
+    }
+}
@@ -0,0 +1,290 @@
+package net.kilmerx.trs.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.event.SlotChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Runs the stream endpoint through MockMvc. A filter in front of it can stall or break the
+ * response of chosen clients, standing in for slow and vanished connections.
+ */
+@SpringBootTest(properties = {
+        "app.availability.stream.max-pending=2",
+        "app.availability.stream.heartbeat-interval-ms=3600000"
+})
+class AvailabilityStreamServiceTest {
+
+    private static final String CLIENT_HEADER = "X-Test-Client";
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(.+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TestData testData;
+
+    private final AtomicBoolean stalling = new AtomicBoolean();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final CountDownLatch stalled = new CountDownLatch(1);
+    private final CountDownLatch unstall = new CountDownLatch(1);
+
+    private MockMvc mockMvc;
+    private Long teacherId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(clientFilter()).build();
+        teacherId = testData.teacher().getId();
+    }
+
+    @AfterEach
+    void release() {
+        unstall.countDown();
+    }
+
+    @Test
+    void deliversSlotChangesAfterTheTransactionCommits() throws Exception {
+        MvcResult stream = subscribe(null, null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(slotChanged(1L));
+            sleep(Duration.ofMillis(200));
+            assertThat(content(stream)).doesNotContain("event:slots");
+        });
+
+        await().atMost(WAIT).until(() -> content(stream).contains("event:slots"));
+        assertThat(content(stream)).contains("\"slotId\":1").contains("\"available\":false");
+    }
+
+    @Test
+    void rolledBackChangesAreNeverSent() throws Exception {
+        MvcResult stream = subscribe(null, null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(slotChanged(1L));
+            status.setRollbackOnly();
+        });
+        eventPublisher.publishEvent(slotChanged(2L));
+
+        await().atMost(WAIT).until(() -> content(stream).contains("\"slotId\":2"));
+        assertThat(content(stream)).doesNotContain("\"slotId\":1");
+    }
+
+    @Test
+    void reconnectsResyncUnlessTheyHaveTheCurrentEventId() throws Exception {
+        MvcResult stale = subscribe("stale", null);
+        await().atMost(WAIT).until(() -> content(stale).contains("event:resync"));
+        String current = eventIds(content(stale)).getFirst();
+        String epoch = current.substring(0, current.lastIndexOf('-'));
+        long version = Long.parseLong(current.substring(current.lastIndexOf('-') + 1));
+
+        MvcResult upToDate = subscribe(current, null);
+        await().atMost(WAIT).until(() -> content(upToDate).contains(":subscribed"));
+        assertThat(content(upToDate)).doesNotContain("event:resync");
+
+        // Changes missed on this node, and an id from another process, both force a refetch
+        for (String lastEventId : List.of(epoch + "-" + (version - 1), "otherepoch-" + version)) {
+            MvcResult behind = subscribe(lastEventId, null);
+            await().atMost(WAIT).until(() -> content(behind).contains("event:resync"));
+            assertThat(eventIds(content(behind))).containsExactly(current);
+        }
+    }
+
+    @Test
+    void slowSubscribersAreDroppedWithoutHoldingUpTheOthers() throws Exception {
+        MvcResult slow = subscribe(null, "stalled");
+        MvcResult healthy = subscribe(null, null);
+        await().atMost(WAIT).until(() -> content(slow).contains(":subscribed"));
+        double subscribers = subscribers();
+
+        stalling.set(true);
+        eventPublisher.publishEvent(slotChanged(1L));
+        assertThat(stalled.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+        // The slow client's send is stuck holding its emitter; publishing must not wait for it
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (long slotId = 2; slotId <= 4; slotId++) {
+                eventPublisher.publishEvent(slotChanged(slotId));
+            }
+        });
+
+        await().atMost(WAIT).until(() -> count(content(healthy), "event:slots") == 4);
+        await().atMost(WAIT).until(() -> subscribers() == subscribers - 1);
+    }
+
+    @Test
+    void failedSubscribersAreRemoved() throws Exception {
+        MvcResult broken = subscribe(null, "failing");
+        MvcResult healthy = subscribe(null, null);
+        await().atMost(WAIT).until(() -> content(broken).contains(":subscribed"));
+        double subscribers = subscribers();
+
+        failing.set(true);
+        eventPublisher.publishEvent(slotChanged(1L));
+        await().atMost(WAIT).until(() -> subscribers() == subscribers - 1);
+
+        eventPublisher.publishEvent(slotChanged(2L));
+        await().atMost(WAIT).until(() -> count(content(healthy), "event:slots") == 2);
+        assertThat(content(broken)).doesNotContain("event:slots");
+    }
+
+    private MvcResult subscribe(String lastEventId, String client) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/public/teachers/{teacherId}/availability/stream", teacherId);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        if (client != null) {
+            request.header(CLIENT_HEADER, client);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private SlotChangedEvent slotChanged(Long slotId) {
+        return new SlotChangedEvent(teacherId, SlotChangedEvent.ChangeType.RESERVED,
+                List.of(SlotDTO.builder().id(slotId).build()));
+    }
+
+    private double subscribers() {
+        return registry.get("trs.availability.stream.subscribers").gauge().value();
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> eventIds(String content) {
+        Matcher matcher = EVENT_ID.matcher(content);
+        return matcher.results().map(match -> match.group(1)).toList();
+    }
+
+    private static int count(String content, String text) {
+        return content.split(Pattern.quote(text), -1).length - 1;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wraps the response of requests marked with {@link #CLIENT_HEADER}: once armed, writes of a
+     * "stalled" client block until the test ends, and writes of a "failing" client throw.
+     */
+    private Filter clientFilter() {
+        return (request, response, chain) -> {
+            String client = ((HttpServletRequest) request).getHeader(CLIENT_HEADER);
+            chain.doFilter(request, client == null ? response
+                    : new ClientResponse((HttpServletResponse) response, client));
+        };
+    }
+
+    private final class ClientResponse extends HttpServletResponseWrapper {
+
+        private final String client;
+
+        private ClientResponse(HttpServletResponse response, String client) {
+            super(response);
+            this.client = client;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            ServletOutputStream out = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    beforeWrite();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    beforeWrite();
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return out.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    out.setWriteListener(listener);
+                }
+            };
+        }
+
+        private void beforeWrite() throws IOException {
+            if (client.equals("failing") && failing.get()) {
+                throw new IOException("Connection reset by peer");
+            }
+            if (client.equals("stalled") && stalling.get()) {
+                stalled.countDown();
+                try {
+                    unstall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package net.kilmerx.trs.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "test:student:1";
+    private static final String FINGERPRINT = IdempotencyService.fingerprint(1L);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void retryReplaysStoredResponseWithoutRunningAgain() {
+        String key = UUID.randomUUID().toString();
+
+        ResponseEntity<String> first = execute(key, FINGERPRINT, HttpStatus.CREATED);
+        ResponseEntity<String> retry = execute(key, FINGERPRINT, HttpStatus.CREATED);
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getHeaders().containsHeader(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo("run 1");
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void conflictIsStoredAndReplayed() {
+        String key = UUID.randomUUID().toString();
+
+        execute(key, FINGERPRINT, HttpStatus.CONFLICT);
+        ResponseEntity<String> retry = execute(key, FINGERPRINT, HttpStatus.CREATED);
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestGets422() {
+        String key = UUID.randomUUID().toString();
+
+        execute(key, FINGERPRINT, HttpStatus.CREATED);
+        ResponseEntity<String> other = execute(key, IdempotencyService.fingerprint(2L), HttpStatus.CREATED);
+
+        assertThat(runs).hasValue(1);
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    @Test
+    void retryWhileFirstRequestRunsGets409() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(SCOPE, key, FINGERPRINT, String.class, () -> {
+                    started.countDown();
+                    await(finish);
+                    return ResponseEntity.status(HttpStatus.CREATED).body("first");
+                }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        ResponseEntity<String> retry = execute(key, FINGERPRINT, HttpStatus.CREATED);
+        finish.countDown();
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(runs).hasValue(0);
+        assertThat(first.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void nonDeterministicOutcomesReleaseTheKey() {
+        for (HttpStatus status : new HttpStatus[]{HttpStatus.BAD_REQUEST, HttpStatus.TOO_MANY_REQUESTS,
+                HttpStatus.SERVICE_UNAVAILABLE}) {
+            String key = UUID.randomUUID().toString();
+            runs.set(0);
+
+            execute(key, FINGERPRINT, status);
+            ResponseEntity<String> retry = execute(key, FINGERPRINT, HttpStatus.CREATED);
+
+            assertThat(runs).as("runs after %s", status).hasValue(2);
+            assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+    }
+
+    @Test
+    void exceptionReleasesTheKey() {
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, key, FINGERPRINT, String.class, () -> {
+            throw new IllegalStateException("connection reset");
+        })).isInstanceOf(IllegalStateException.class);
+        ResponseEntity<String> retry = execute(key, FINGERPRINT, HttpStatus.CREATED);
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    private ResponseEntity<String> execute(String key, String fingerprint, HttpStatus status) {
+        return idempotencyService.execute(SCOPE, key, fingerprint, String.class, () ->
+                ResponseEntity.status(status).body("run " + runs.incrementAndGet()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
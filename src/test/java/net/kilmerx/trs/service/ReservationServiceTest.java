@@ -0,0 +1,208 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.TestData;
+import net.kilmerx.trs.dto.BatchReservationRequest;
+import net.kilmerx.trs.dto.BatchReservationResponse;
+import net.kilmerx.trs.exception.SlotConflictException;
+import net.kilmerx.trs.model.Reservation;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.repository.ReservationRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ReservationServiceTest {
+
+    private static final int CONTENDERS = 8;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void concurrentSingleClaimsLetExactlyOneStudentWin() throws Exception {
+        Long slotId = testData.slots(testData.teacher(), 1).getFirst().getId();
+        List<Long> students = new ArrayList<>();
+        for (int i = 0; i < CONTENDERS; i++) {
+            students.add(testData.student().getId());
+        }
+
+        List<Object> results = race(students.stream()
+                .<Callable<Object>>map(studentId -> () -> studentId % 2 == 0
+                        ? reservationService.reserveSlot(studentId, slotId)
+                        : reservationService.holdSlot(studentId, slotId))
+                .toList());
+
+        assertThat(results).filteredOn(result -> !(result instanceof Throwable)).hasSize(1);
+        assertThat(results).filteredOn(result -> result instanceof Throwable)
+                .allMatch(result -> result instanceof SlotConflictException);
+        assertThat(liveReservations(slotId)).isEqualTo(1);
+        assertThat(slotRepository.findById(slotId).orElseThrow().getAvailable()).isFalse();
+    }
+
+    @Test
+    void concurrentBatchesOverTheSameSlotsDoNotDoubleBook() throws Exception {
+        List<Long> slotIds = testData.slots(testData.teacher(), 3).stream().map(Slot::getId).toList();
+        Long first = testData.student().getId();
+        Long second = testData.student().getId();
+
+        // Opposite request orders: the service locks in id order, so neither batch can deadlock
+        List<Object> results = race(List.of(
+                () -> reservationService.reserveSlots(first, slotIds, BatchReservationRequest.Mode.ALL_OR_NOTHING),
+                () -> reservationService.reserveSlots(second, slotIds.reversed(),
+                        BatchReservationRequest.Mode.ALL_OR_NOTHING)));
+
+        assertThat(results).allMatch(result -> result instanceof BatchReservationResponse);
+        assertThat(results).extracting(result -> ((BatchReservationResponse) result).getReserved())
+                .containsExactlyInAnyOrder(3, 0);
+        slotIds.forEach(slotId -> assertThat(liveReservations(slotId)).isEqualTo(1));
+    }
+
+    @Test
+    void allOrNothingReservesNothingUnlessEverySlotIsFree() {
+        List<Long> slotIds = testData.slots(testData.teacher(), 3).stream().map(Slot::getId).toList();
+        reservationService.reserveSlot(testData.student().getId(), slotIds.get(1));
+        Long missing = slotIds.getLast() + 1_000_000;
+
+        BatchReservationResponse response = reservationService.reserveSlots(testData.student().getId(),
+                List.of(missing, slotIds.get(2), slotIds.get(1), slotIds.get(0)),
+                BatchReservationRequest.Mode.ALL_OR_NOTHING);
+
+        assertThat(response.getReserved()).isZero();
+        assertThat(response.getOutcomes())
+                .extracting(BatchReservationResponse.SlotOutcome::getSlotId, BatchReservationResponse.SlotOutcome::getOutcome)
+                .containsExactly(
+                        tuple(slotIds.get(0), BatchReservationResponse.Outcome.SKIPPED),
+                        tuple(slotIds.get(1), BatchReservationResponse.Outcome.UNAVAILABLE),
+                        tuple(slotIds.get(2), BatchReservationResponse.Outcome.SKIPPED),
+                        tuple(missing, BatchReservationResponse.Outcome.NOT_FOUND));
+        assertThat(response.getOutcomes()).allMatch(outcome -> outcome.getReservationId() == null);
+        assertThat(slotRepository.findById(slotIds.get(0)).orElseThrow().getAvailable()).isTrue();
+        assertThat(slotRepository.findById(slotIds.get(2)).orElseThrow().getAvailable()).isTrue();
+    }
+
+    @Test
+    void bestEffortReservesWhicheverSlotsAreFree() {
+        List<Long> slotIds = testData.slots(testData.teacher(), 3).stream().map(Slot::getId).toList();
+        reservationService.reserveSlot(testData.student().getId(), slotIds.get(1));
+        Long missing = slotIds.getLast() + 1_000_000;
+
+        BatchReservationResponse response = reservationService.reserveSlots(testData.student().getId(),
+                List.of(missing, slotIds.get(2), slotIds.get(1), slotIds.get(0)),
+                BatchReservationRequest.Mode.BEST_EFFORT);
+
+        assertThat(response.getReserved()).isEqualTo(2);
+        assertThat(response.getOutcomes())
+                .extracting(BatchReservationResponse.SlotOutcome::getSlotId, BatchReservationResponse.SlotOutcome::getOutcome)
+                .containsExactly(
+                        tuple(slotIds.get(0), BatchReservationResponse.Outcome.RESERVED),
+                        tuple(slotIds.get(1), BatchReservationResponse.Outcome.UNAVAILABLE),
+                        tuple(slotIds.get(2), BatchReservationResponse.Outcome.RESERVED),
+                        tuple(missing, BatchReservationResponse.Outcome.NOT_FOUND));
+        assertThat(response.getOutcomes())
+                .filteredOn(outcome -> outcome.getOutcome() == BatchReservationResponse.Outcome.RESERVED)
+                .allMatch(outcome -> reservationRepository.existsById(outcome.getReservationId()));
+        slotIds.forEach(slotId -> assertThat(liveReservations(slotId)).isEqualTo(1));
+    }
+
+    @Test
+    void duplicateSlotIdsAreReservedOnce() {
+        List<Long> slotIds = testData.slots(testData.teacher(), 2).stream().map(Slot::getId).toList();
+
+        BatchReservationResponse response = reservationService.reserveSlots(testData.student().getId(),
+                List.of(slotIds.get(1), slotIds.get(0), slotIds.get(1)), null);
+
+        assertThat(response.getMode()).isEqualTo(BatchReservationRequest.Mode.ALL_OR_NOTHING);
+        assertThat(response.getReserved()).isEqualTo(2);
+        assertThat(response.getOutcomes()).extracting(BatchReservationResponse.SlotOutcome::getSlotId)
+                .containsExactlyElementsOf(slotIds);
+        slotIds.forEach(slotId -> assertThat(liveReservations(slotId)).isEqualTo(1));
+    }
+
+    @Test
+    void rejectsEmptyNullAndOversizedBatches() {
+        Long studentId = testData.student().getId();
+        List<Long> tooMany = LongStream.rangeClosed(1, ReservationService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThatThrownBy(() -> reservationService.reserveSlots(studentId, List.of(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reservationService.reserveSlots(studentId, Arrays.asList(1L, null), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reservationService.reserveSlots(studentId, tooMany, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onlyTheLiveSlotIndexCountsAsASlotConflict() {
+        assertThat(ReservationService.isLiveSlotViolation(violation("UX_RESERVATIONS_LIVE_SLOT"))).isTrue();
+        assertThat(ReservationService.isLiveSlotViolation(violation("reservations_student_id_fkey"))).isFalse();
+        assertThat(ReservationService.isLiveSlotViolation(new DataIntegrityViolationException("no cause"))).isFalse();
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("insert failed",
+                new ConstraintViolationException("insert failed", new SQLException("23505"), constraint));
+    }
+
+    /**
+     * Releases all tasks at once and returns each result, or the exception it failed with.
+     */
+    private static List<Object> race(List<Callable<Object>> tasks) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(tasks.size())) {
+            List<Future<Object>> futures = tasks.stream()
+                    .map(task -> executor.submit(() -> {
+                        start.await();
+                        return task.call();
+                    }))
+                    .toList();
+            start.countDown();
+
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(e.getCause());
+                }
+            }
+            return results;
+        }
+    }
+
+    private long liveReservations(Long slotId) {
+        return reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getSlot().getId().equals(slotId))
+                .filter(reservation -> reservation.getStatus() != Reservation.ReservationStatus.CANCELLED
+                        && reservation.getStatus() != Reservation.ReservationStatus.COMPLETED)
+                .count();
+    }
+}
@@ -0,0 +1,154 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.model.SchedulerLock;
+import net.kilmerx.trs.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SchedulerLockServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private SchedulerLockService lockService;
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void firstRunInsertsTheLockAndReleasesItAfterwards() {
+        String name = lockName();
+        List<SchedulerLock> duringJob = new ArrayList<>();
+
+        boolean ran = lockService.runExclusively(name, LEASE,
+                () -> duringJob.add(lockRepository.findById(name).orElseThrow()));
+
+        assertThat(ran).isTrue();
+        assertThat(duringJob).singleElement()
+                .satisfies(lock -> assertThat(lock.getLockedUntil()).isAfter(LocalDateTime.now()));
+        assertThat(lockRepository.findById(name).orElseThrow().getLockedUntil())
+                .isBeforeOrEqualTo(LocalDateTime.now());
+    }
+
+    @Test
+    void skipsTheJobWhileAnotherNodeHoldsTheLease() {
+        String name = lockName();
+        insertLock(name, "other-node", LocalDateTime.now().plusMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(lockService.runExclusively(name, LEASE, runs::incrementAndGet)).isFalse();
+
+        assertThat(runs).hasValue(0);
+        assertThat(lockRepository.findById(name).orElseThrow().getLockedBy()).isEqualTo("other-node");
+    }
+
+    @Test
+    void takesOverALapsedLease() {
+        String name = lockName();
+        insertLock(name, "dead-node", LocalDateTime.now().minusMinutes(1));
+        List<String> holders = new ArrayList<>();
+
+        boolean ran = lockService.runExclusively(name, LEASE,
+                () -> holders.add(lockRepository.findById(name).orElseThrow().getLockedBy()));
+
+        assertThat(ran).isTrue();
+        assertThat(holders).singleElement().isNotEqualTo("dead-node");
+    }
+
+    @Test
+    void releasesTheLockWhenTheJobFails() {
+        String name = lockName();
+
+        assertThatThrownBy(() -> lockService.runExclusively(name, LEASE, () -> {
+            throw new IllegalStateException("job failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        AtomicInteger runs = new AtomicInteger();
+        SchedulerLockService otherNode = otherNode();
+        assertThat(otherNode.runExclusively(name, LEASE, runs::incrementAndGet)).isTrue();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void onlyOneNodeWinsTheFirstRun() throws Exception {
+        String name = lockName();
+        List<SchedulerLockService> nodes = List.of(lockService, otherNode(), otherNode(), otherNode());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(nodes.size())) {
+            for (SchedulerLockService node : nodes) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return node.runExclusively(name, LEASE, () -> {
+                        assertThat(running.incrementAndGet()).isEqualTo(1);
+                        runs.incrementAndGet();
+                        sleep(Duration.ofMillis(200));
+                        running.decrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+        }
+
+        // The winner holds the lease for the whole job, so nobody else gets a turn
+        long ranHere = 0;
+        for (Future<Boolean> result : results) {
+            ranHere += result.get() ? 1 : 0;
+        }
+        assertThat(ranHere).isEqualTo(1);
+        assertThat(runs).hasValue(1);
+    }
+
+    /**
+     * A second instance with its own owner id, as on another node.
+     */
+    private SchedulerLockService otherNode() {
+        SchedulerLockService node = new SchedulerLockService(lockRepository, transactionTemplate);
+        node.init();
+        return node;
+    }
+
+    private void insertLock(String name, String owner, LocalDateTime until) {
+        lockRepository.saveAndFlush(SchedulerLock.builder()
+                .name(name)
+                .lockedBy(owner)
+                .lockedAt(LocalDateTime.now().minusMinutes(10))
+                .lockedUntil(until)
+                .build());
+    }
+
+    private static String lockName() {
+        return "test-" + UUID.randomUUID();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
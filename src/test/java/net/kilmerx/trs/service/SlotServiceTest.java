@@ -0,0 +1,139 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.TestData;
+import jakarta.persistence.EntityManager;
+import net.kilmerx.trs.dto.SlotBatchResponse;
+import net.kilmerx.trs.dto.SlotDTO;
+import net.kilmerx.trs.dto.SlotRangeRequest;
+import net.kilmerx.trs.exception.SlotConflictException;
+import net.kilmerx.trs.model.Slot;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.TeacherRepository;
+import net.kilmerx.trs.util.ConstraintViolations;
+import net.kilmerx.trs.util.SlotGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SlotServiceTest {
+
+    private static final int CONTENDERS = 4;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void batchedInsertKeepsTheCallersEntitiesManaged() {
+        Long teacherId = testData.teacher().getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Teacher teacher = teacherRepository.findById(teacherId).orElseThrow();
+            // More than one JDBC batch, so the batch flush runs mid-call
+            slotService.createSlots(teacherId, hourlyStarts(120), null);
+
+            assertThat(entityManager.contains(teacher)).isTrue();
+        });
+        assertThat(slotRepository.findByTeacherId(teacherId)).hasSize(120);
+    }
+
+    @Test
+    void singleRangeSkipsHoursTheTeacherAlreadyHas() {
+        Long teacherId = testData.teacher().getId();
+        NavigableSet<LocalDateTime> starts = hourlyStarts(4);
+        transactionTemplate.executeWithoutResult(status ->
+                slotService.createSlots(teacherId, new TreeSet<>(starts.headSet(starts.first().plusHours(2))), null));
+
+        List<SlotDTO> created = slotService.addSlotsFromRange(teacherId,
+                new SlotRangeRequest(starts.first(), starts.last().plusHours(1)));
+
+        assertThat(created).extracting(SlotDTO::getStartDateTime)
+                .containsExactly(starts.first().plusHours(2), starts.first().plusHours(3));
+        assertThat(slotRepository.findByTeacherId(teacherId)).hasSize(4);
+    }
+
+    @Test
+    void theDatabaseRejectsASecondSlotAtTheSameHour() {
+        Teacher teacher = testData.teacher();
+        LocalDateTime start = hourlyStarts(1).first();
+        slotRepository.saveAndFlush(SlotGenerator.buildSlot(teacher, start));
+
+        assertThatThrownBy(() -> slotRepository.saveAndFlush(SlotGenerator.buildSlot(teacher, start)))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(ConstraintViolations.isViolationOf(e, "ux_slots_teacher_start")).isTrue());
+    }
+
+    @Test
+    void concurrentRangePostsCreateEachHourOnce() throws Exception {
+        Long teacherId = testData.teacher().getId();
+        NavigableSet<LocalDateTime> starts = hourlyStarts(24);
+        SlotRangeRequest range = new SlotRangeRequest(starts.first(), starts.last().plusHours(1));
+        CountDownLatch go = new CountDownLatch(1);
+
+        List<Future<SlotBatchResponse>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS)) {
+            for (int i = 0; i < CONTENDERS; i++) {
+                results.add(executor.submit(() -> {
+                    go.await();
+                    return slotService.addSlotsFromRanges(teacherId, List.of(range));
+                }));
+            }
+            go.countDown();
+        }
+
+        // Each caller either wrote its hours or lost the race on the unique index and can retry
+        int created = 0;
+        for (Future<SlotBatchResponse> result : results) {
+            try {
+                created += result.get().getCreated();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(SlotConflictException.class);
+            }
+        }
+        assertThat(created).isEqualTo(24);
+        assertThat(slotRepository.findByTeacherId(teacherId)).extracting(Slot::getStartDateTime)
+                .doesNotHaveDuplicates()
+                .hasSize(24);
+    }
+
+    private NavigableSet<LocalDateTime> hourlyStarts(int count) {
+        LocalDateTime start = TestData.tomorrow();
+        NavigableSet<LocalDateTime> starts = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            starts.add(start.plusHours(i));
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,108 @@
+package net.kilmerx.trs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.kilmerx.trs.dto.SkillDTO;
+import net.kilmerx.trs.dto.TeacherDTO;
+import net.kilmerx.trs.event.SkillChangedEvent;
+import net.kilmerx.trs.metrics.TrsMetrics;
+import net.kilmerx.trs.model.Skill;
+import net.kilmerx.trs.model.Teacher;
+import net.kilmerx.trs.model.User;
+import net.kilmerx.trs.repository.SkillRepository;
+import net.kilmerx.trs.repository.SlotRepository;
+import net.kilmerx.trs.repository.TeacherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TeacherCatalogServiceTest {
+
+    private static final Long TEACHER_ID = 1L;
+
+    private final TeacherRepository teacherRepository = mock(TeacherRepository.class);
+    private final SkillRepository skillRepository = mock(SkillRepository.class);
+    private final SlotRepository slotRepository = mock(SlotRepository.class);
+
+    private final Teacher teacher = Teacher.builder()
+            .id(TEACHER_ID)
+            .user(User.builder().id(10L).username("teacher").build())
+            .build();
+    private final AtomicReference<List<Skill>> committedSkills = new AtomicReference<>(List.of(skill("Java")));
+
+    private TeacherCatalogService catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(teacherRepository.findIdsAfter(any(), any())).thenReturn(List.of(TEACHER_ID));
+        when(teacherRepository.findWithUserByIdIn(anyCollection())).thenReturn(List.of(teacher));
+        when(slotRepository.findByTeacherIdInAndAvailableTrueAndEndDateTimeAfterOrderByStartDateTime(anyCollection(), any()))
+                .thenReturn(List.of());
+
+        catalog = new TeacherCatalogService(teacherRepository, skillRepository, slotRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new TrsMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(catalog, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(catalog, "cacheTtl", Duration.ofMinutes(5));
+        catalog.init();
+    }
+
+    @Test
+    void pageLoadThatReadBeforeAChangeIsNotServedAfterIt() throws Exception {
+        CountDownLatch loadRead = new CountDownLatch(1);
+        CountDownLatch changeCommitted = new CountDownLatch(1);
+        AtomicBoolean blockFirstLoad = new AtomicBoolean(true);
+        when(skillRepository.findByTeacherIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Skill> read = committedSkills.get();
+            if (blockFirstLoad.compareAndSet(true, false)) {
+                // The page load has read the old skills; let the change commit and evict before it caches them
+                loadRead.countDown();
+                assertThat(changeCommitted.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            return read;
+        });
+
+        CompletableFuture<?> pageLoad = CompletableFuture.runAsync(() -> catalog.getTeachers(null, 20));
+        assertThat(loadRead.await(10, TimeUnit.SECONDS)).isTrue();
+        committedSkills.set(List.of(skill("Java"), skill("Kotlin")));
+        catalog.onSkillChanged(new SkillChangedEvent(TEACHER_ID, SkillChangedEvent.ChangeType.ADDED, "Kotlin"));
+        changeCommitted.countDown();
+        pageLoad.get(10, TimeUnit.SECONDS);
+
+        assertThat(skillNames(catalog.getTeachers(null, 20).getTeachers().getFirst())).containsExactly("Java", "Kotlin");
+        assertThat(skillNames(catalog.getTeacher(TEACHER_ID))).containsExactly("Java", "Kotlin");
+    }
+
+    @Test
+    void unchangedTeacherIsServedFromCache() {
+        when(skillRepository.findByTeacherIdIn(anyCollection())).thenAnswer(invocation -> committedSkills.get());
+
+        catalog.getTeachers(null, 20);
+        committedSkills.set(List.of());
+
+        assertThat(skillNames(catalog.getTeacher(TEACHER_ID))).containsExactly("Java");
+    }
+
+    private Skill skill(String name) {
+        return Skill.builder().id((long) name.hashCode()).skillName(name).teacher(teacher).build();
+    }
+
+    private static List<String> skillNames(TeacherDTO teacher) {
+        return teacher.getSkills().stream().map(SkillDTO::getSkillName).toList();
+    }
+}
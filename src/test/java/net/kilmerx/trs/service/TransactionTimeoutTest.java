@@ -0,0 +1,40 @@
+package net.kilmerx.trs.service;
+
+import net.kilmerx.trs.repository.SlotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Delta sync relies on no transaction committing later than the default timeout after it
+ * stamped its rows; see {@link SlotChangesService}.
+ */
+@SpringBootTest(properties = {
+        "spring.transaction.default-timeout=PT1S",
+        "app.slots.changes.clock-skew=PT0S",
+        "app.slots.changes.settle-window=PT1S"})
+class TransactionTimeoutTest {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Test
+    void transactionsRunningPastTheDefaultTimeoutFail() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            slotRepository.count();
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slotRepository.count();
+        })).isInstanceOf(TransactionTimedOutException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package net.kilmerx.trs.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private final BlockingQueue<Fired> fired = new LinkedBlockingQueue<>();
+    private HashedTimingWheel<String> wheel;
+
+    private record Fired(String key, long atNanos) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void timerNeverFiresEarly() throws Exception {
+        wheel = wheel(64);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule("a", Duration.ofMillis(150));
+
+        Fired a = next();
+        assertThat(a.key()).isEqualTo("a");
+        assertThat(a.atNanos() - scheduledAt).isGreaterThanOrEqualTo(Duration.ofMillis(150).toNanos());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timerBeyondOneRotationWaitsForItsRounds() throws Exception {
+        // 4 buckets of 10 ms: 250 ms is six rotations out, and lands in bucket 1 like a 10 ms timer
+        wheel = wheel(4);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule("far", Duration.ofMillis(250));
+        wheel.schedule("near", Duration.ofMillis(10));
+
+        assertThat(next().key()).isEqualTo("near");
+        Fired far = next();
+        assertThat(far.key()).isEqualTo("far");
+        assertThat(far.atNanos() - scheduledAt).isGreaterThanOrEqualTo(Duration.ofMillis(250).toNanos());
+    }
+
+    @Test
+    void timersFireInDeadlineOrderAcrossBuckets() throws Exception {
+        wheel = wheel(8);
+
+        wheel.schedule("c", Duration.ofMillis(120));
+        wheel.schedule("a", Duration.ofMillis(20));
+        wheel.schedule("b", Duration.ofMillis(60));
+
+        assertThat(next().key()).isEqualTo("a");
+        assertThat(next().key()).isEqualTo("b");
+        assertThat(next().key()).isEqualTo("c");
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() throws Exception {
+        wheel = wheel(64);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule("late", Duration.ofSeconds(-5));
+
+        Fired late = next();
+        assertThat(late.key()).isEqualTo("late");
+        assertThat(late.atNanos() - scheduledAt).isLessThan(Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void schedulingAnExistingKeyReplacesItsTimer() throws Exception {
+        wheel = wheel(64);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule("a", Duration.ofMillis(20));
+        wheel.schedule("a", Duration.ofMillis(200));
+
+        Fired a = next();
+        assertThat(a.atNanos() - scheduledAt).isGreaterThanOrEqualTo(Duration.ofMillis(200).toNanos());
+        assertThat(fired.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void cancelledTimerNeverFires() throws Exception {
+        wheel = wheel(64);
+
+        wheel.schedule("a", Duration.ofMillis(30));
+        wheel.schedule("b", Duration.ofMillis(60));
+        wheel.cancel("a");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(next().key()).isEqualTo("b");
+        assertThat(fired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void failingCallbackDoesNotStopTheWheel() throws Exception {
+        wheel = new HashedTimingWheel<>(TICK, 64, key -> {
+            if (key.equals("bad")) {
+                throw new IllegalStateException("boom");
+            }
+            fired.add(new Fired(key, System.nanoTime()));
+        }, "test-wheel");
+
+        wheel.schedule("bad", Duration.ofMillis(10));
+        wheel.schedule("good", Duration.ofMillis(40));
+
+        assertThat(next().key()).isEqualTo("good");
+    }
+
+    private HashedTimingWheel<String> wheel(int size) {
+        return new HashedTimingWheel<>(TICK, size, key -> fired.add(new Fired(key, System.nanoTime())), "test-wheel");
+    }
+
+    private Fired next() throws InterruptedException {
+        Fired next = fired.poll(5, TimeUnit.SECONDS);
+        assertThat(next).as("timer fired").isNotNull();
+        return next;
+    }
+}